@@ -20,8 +20,10 @@ import io.zatarox.vertx.async.api.AsyncUtils;
 import io.vertx.core.Context;
 import io.zatarox.vertx.async.api.AsyncCollections;
 import io.zatarox.vertx.async.api.AsyncFlows;
+import io.zatarox.vertx.async.api.AsyncFutures;
 import io.zatarox.vertx.async.impl.AsyncCollectionsImpl;
 import io.zatarox.vertx.async.impl.AsyncFlowsImpl;
+import io.zatarox.vertx.async.impl.AsyncFuturesImpl;
 import io.zatarox.vertx.async.impl.AsyncUtilsImpl;
 
 public final class AsyncFactorySingleton implements AsyncFactory {
@@ -46,6 +48,11 @@ public final class AsyncFactorySingleton implements AsyncFactory {
         return new AsyncFlowsImpl(context);
     }
 
+    @Override
+    public AsyncFutures createFutures(final Context context) {
+        return new AsyncFuturesImpl(context);
+    }
+
     public static AsyncFactorySingleton getInstance() {
         if (instance == null) {
             instance = new AsyncFactorySingleton();
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.api;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * A worker passing its tasks by batches to a single worker function.
+ *
+ * @param <T> Handled task type
+ */
+public interface AsyncCargo<T> extends AsyncWorker<Collection<T>> {
+
+    /**
+     * @return Maximum number of tasks passed to the worker at once.
+     */
+    int getPayload();
+
+    /**
+     * @param payload Define maximum number of tasks passed to the worker at
+     * once.
+     */
+    void setPayload(final int payload);
+
+    /**
+     * @return Maximum time in milliseconds a partial batch waits for more
+     * tasks, or 0 if batches are dispatched as soon as possible.
+     */
+    long getLinger();
+
+    /**
+     * Let a partial batch wait up to {@code delay} for more tasks before being
+     * dispatched. A batch leaves earlier once it reaches the minimal batch
+     * size, the payload or the maximum weight.
+     *
+     * @param unit Time unit used for the delay time.
+     * @param delay Linger delay, 0 to disable.
+     */
+    void setLinger(final TimeUnit unit, final long delay);
+
+    /**
+     * @return Number of queued tasks dispatched without waiting for the linger
+     * delay to expire.
+     */
+    int getMinBatch();
+
+    /**
+     * @param minBatch Number of queued tasks dispatched without waiting for
+     * the linger delay to expire.
+     */
+    void setMinBatch(final int minBatch);
+
+    /**
+     * @return Maximum accumulated weight of a batch.
+     */
+    int getMaxWeight();
+
+    /**
+     * Bound batches by the accumulated weight of their tasks (in bytes for
+     * instance) in addition to their count. A single task heavier than
+     * {@code maxWeight} is still dispatched, alone.
+     *
+     * @param weigher Function computing the weight of a task, or null to
+     * disable the weight limit.
+     * @param maxWeight Maximum accumulated weight of a batch.
+     */
+    void setWeigher(final ToIntFunction<T> weigher, final int maxWeight);
+
+    /**
+     * @return True if the cargo completes task handlers.
+     */
+    boolean isManaged();
+
+    /**
+     * In managed mode, the cargo completes the handler of every task from the
+     * result of its batch, so the worker only has to complete the batch. A
+     * batch failed with a
+     * {@link io.zatarox.vertx.async.utils.BatchFailureException} fails the
+     * reported items only, any other failure fails the whole batch.
+     *
+     * @param managed True to let the cargo complete task handlers.
+     */
+    void setManaged(final boolean managed);
+
+}
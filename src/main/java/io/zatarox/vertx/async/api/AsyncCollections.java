@@ -17,10 +17,14 @@ package io.zatarox.vertx.async.api;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.core.streams.WriteStream;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BinaryOperator;
 
 public interface AsyncCollections {
 
@@ -41,6 +45,28 @@ public interface AsyncCollections {
      */
     <I, O> void concat(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<Collection<O>>>> consumer, final Handler<AsyncResult<Collection<O>>> handler);
 
+    /**
+     * Applies {@code consumer} to each item in {@code iterable}, in parallel,
+     * and passes each resulting collection to {@code emitter} with the index
+     * of its item as soon as it completes, instead of concatenating every
+     * result until the last one. If {@code consumer} passes an error to its
+     * callback, no more values are emitted and the main {@code handler} is
+     * immediately called with the error.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable},
+     * which should use an array as its result. Invoked with (item, callback).
+     * @param emitter A function called with (index, results) for each item as
+     * soon as it completes. The index is the position of the item in the
+     * iteration order of {@code iterable}.
+     * @param handler A callback which is called when all {@code consumer}
+     * functions have finished and their values are emitted, or an error
+     * occurs.
+     */
+    <I, O> void concat(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<Collection<O>>>> consumer, final BiHandler<Integer, Collection<O>> emitter, final Handler<AsyncResult<Void>> handler);
+
     /**
      * Returns the first value in {@code collection} that passes an async truth
      * test. The {@code function} is applied in parallel, meaning the first
@@ -61,6 +87,27 @@ public interface AsyncCollections {
     
     <T> void detect(final Collection<T> collection, final BiHandler<T, Handler<AsyncResult<Boolean>>> function, final Handler<AsyncResult<T>> handler);
 
+    /**
+     * Returns the first value pulled from {@code iterator} that passes an
+     * async truth test, with at most {@code limit} items in progress. Items
+     * are only pulled from the {@code iterator} when a slot is free, so
+     * generated or paged sources never have to be fully materialized. No more
+     * items are pulled once an item passes, or an error occurs.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterator An iterator to pull items from. It is only accessed from
+     * the context.
+     * @param limit The maximum number of items in progress at a time.
+     * @param function A truth test to apply to each item in {@code iterator}.
+     * The iteratee is passed a {@code callback} which must be called with a
+     * boolean argument once it has completed.
+     * @param handler A callback which is called as soon as any iteratee returns
+     * {@code true}, or after the {@code iterator} is exhausted and all the
+     * {@code function} functions have finished. Result will be the item that
+     * passed the truth test or the value {@code null} if none passed.
+     */
+    <T> void detect(final Iterator<T> iterator, final int limit, final BiHandler<T, Handler<AsyncResult<Boolean>>> function, final Handler<AsyncResult<T>> handler);
+
     /**
      * Applies the function {@code consumer} to each item in {@code iterable},
      * in parallel. The {@code consumer} is called with an item from the list,
@@ -102,6 +149,42 @@ public interface AsyncCollections {
      */
     <K, V> void each(final Map<K, V> iterable, final BiHandler<Pair<K, V>, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler);
 
+    /**
+     * The same as {@code each}, only the {@code consumer} is applied to one
+     * item at a time, in the iteration order of {@code iterable}. Items
+     * completing synchronously are looped over without posting to the
+     * context.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called when all {@code consumer}
+     * functions have finished, or an error occurs.
+     */
+    <T> void eachSeries(final Collection<T> iterable, final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler);
+
+    /**
+     * Applies the function {@code consumer} to each item pulled from
+     * {@code iterator}, with at most {@code limit} items in progress. Items
+     * are only pulled from the {@code iterator} when a slot is free, so
+     * generated or paged sources never have to be fully materialized. If the
+     * {@code consumer} passes an error to its callback, no more items are
+     * pulled and the main {@code handler} is immediately called with the
+     * error.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterator An iterator to pull items from. It is only accessed from
+     * the context.
+     * @param limit The maximum number of items in progress at a time.
+     * @param consumer A function to apply to each item in {@code iterator}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called when the {@code iterator} is
+     * exhausted and all {@code consumer} functions have finished, or an error
+     * occurs.
+     */
+    <T> void each(final Iterator<T> iterator, final int limit, final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler);
+
     /**
      * Returns {@code true} if every element in {@code collection} satisfies an
      * async test. If any iteratee call returns {@code false}, the main
@@ -132,6 +215,21 @@ public interface AsyncCollections {
      */
     <T> void filter(final Collection<T> iterable, final BiHandler<T, Handler<AsyncResult<Boolean>>> consumer, final Handler<AsyncResult<Collection<T>>> handler);
 
+    /**
+     * The same as {@code filter}, only the {@code consumer} is applied to one
+     * item at a time, in the iteration order of {@code iterable}. Items
+     * completing synchronously are looped over without posting to the
+     * context.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A truth test to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called with the items passing the
+     * test, in the iteration order of {@code iterable}, or an error.
+     */
+    <T> void filterSeries(final Collection<T> iterable, final BiHandler<T, Handler<AsyncResult<Boolean>>> consumer, final Handler<AsyncResult<Collection<T>>> handler);
+
     /**
      * Produces a new collection of values by mapping each value in
      * {@code iterable} through the {@code consumer} function. The
@@ -160,6 +258,91 @@ public interface AsyncCollections {
      */
     <I, O> void map(final List<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final Handler<AsyncResult<Collection<O>>> handler);
 
+    /**
+     * The same as {@code map}, only the {@code consumer} is applied to one
+     * item at a time, in the iteration order of {@code iterable}. Items
+     * completing synchronously are looped over without posting to the
+     * context.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called with the transformed items, in
+     * the iteration order of {@code iterable}, or an error.
+     */
+    <I, O> void mapSeries(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final Handler<AsyncResult<Collection<O>>> handler);
+
+    /**
+     * Produces values by mapping each item of {@code iterable} through the
+     * {@code consumer} function, in parallel, and passes each of them to
+     * {@code emitter} with its index as soon as it completes, instead of
+     * holding every result until the last one. If {@code consumer} passes an
+     * error to its callback, no more values are emitted and the main
+     * {@code handler} is immediately called with the error.
+     *
+     * Note, that values are emitted in completion order, which may differ from
+     * the order of {@code iterable}. Use the index to restore it if needed.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param emitter A function called with (index, transformed item) for each
+     * item as soon as it completes.
+     * @param handler A callback which is called when all {@code consumer}
+     * functions have finished and their values are emitted, or an error
+     * occurs.
+     */
+    <I, O> void map(final List<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final BiHandler<Integer, O> emitter, final Handler<AsyncResult<Void>> handler);
+
+    /**
+     * Produces a new stream of values by mapping each item of {@code stream}
+     * through the {@code consumer} function, with at most {@code limit} items
+     * in progress. Results are written to {@code output} in the order of the
+     * {@code stream}. An item holds its slot until its result is written, and
+     * writes wait for the {@code output} to drain when its write queue is
+     * full, so memory stays bounded whatever the size of the {@code stream}.
+     * If the {@code consumer} passes an error to its callback, or the
+     * {@code stream} fails, the {@code stream} is paused and the main
+     * {@code handler} is immediately called with the error.
+     *
+     * Note, the {@code output} is not ended, it is up to the {@code handler}.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param stream A stream to iterate over.
+     * @param limit The maximum number of items in progress at a time.
+     * @param consumer A function to apply to each item in {@code stream}.
+     * Invoked with (item, callback).
+     * @param output The stream the transformed items are written to.
+     * @param handler A callback which is called when the {@code stream} has
+     * ended and all results are written, or an error occurs.
+     */
+    <I, O> void mapStream(final ReadStream<I> stream, final int limit, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final WriteStream<O> output, final Handler<AsyncResult<Void>> handler);
+
+    /**
+     * Applies the function {@code consumer} to each item of {@code stream},
+     * with at most {@code limit} items in progress. The {@code stream} is
+     * paused when the limit is reached and resumed as items complete, so
+     * memory stays bounded whatever the size of the {@code stream}. If the
+     * {@code consumer} passes an error to its callback, or the {@code stream}
+     * fails, the {@code stream} is paused and the main {@code handler} is
+     * immediately called with the error.
+     *
+     * @param <T> Define the manipulated type.
+     * @param stream A stream to iterate over.
+     * @param limit The maximum number of items in progress at a time.
+     * @param consumer A function to apply to each item in {@code stream}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called when the {@code stream} has
+     * ended and all {@code consumer} functions have finished, or an error
+     * occurs.
+     */
+    <T> void eachStream(final ReadStream<T> stream, final int limit, final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler);
+
     /**
      * Reduces {@code collection} into a single value using an async
      * {@code consumer} to return each successive step. {@code memo} is the
@@ -184,6 +367,50 @@ public interface AsyncCollections {
      */
     <I, O> void reduce(final Collection<I> collection, final O memo, final BiHandler<Pair<I, O>, Handler<AsyncResult<O>>> function, final Handler<AsyncResult<O>> handler);
 
+    /**
+     * Reduces {@code collection} into a single value, mapping each item
+     * through {@code mapper} and merging the values with {@code combiner},
+     * which must be associative. Unlike {@code reduce}, the items are split
+     * into at most {@code limit} chunks reduced concurrently, and their
+     * results are merged in a balanced tree. If {@code mapper} passes an error
+     * to its callback, or {@code combiner} throws, the main {@code handler} is
+     * immediately called with the error.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param collection A collection to iterate over.
+     * @param identity The identity of {@code combiner}, and the result when
+     * {@code collection} is empty.
+     * @param mapper A function mapping each item to a value. Invoked with
+     * (item, callback).
+     * @param combiner An associative function merging two values.
+     * @param limit The maximum number of chunks reduced concurrently.
+     * @param handler A callback which is called with the reduced value, or an
+     * error.
+     */
+    <I, O> void reduceParallel(final Collection<I> collection, final O identity, final BiHandler<I, Handler<AsyncResult<O>>> mapper, final BinaryOperator<O> combiner, final int limit, final Handler<AsyncResult<O>> handler);
+
+    /**
+     * The same as {@code reduceParallel}, only when {@code blocking} is set,
+     * the {@code combiner} is run on the worker pool. Use it for CPU heavy
+     * combiners which should not block the context. Each chunk is folded, and
+     * each pair of partial results merged, in a single blocking call.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param collection A collection to iterate over.
+     * @param identity The identity of {@code combiner}, and the result when
+     * {@code collection} is empty.
+     * @param mapper A function mapping each item to a value. Invoked with
+     * (item, callback).
+     * @param combiner An associative function merging two values.
+     * @param limit The maximum number of chunks reduced concurrently.
+     * @param blocking Whether {@code combiner} is run on the worker pool.
+     * @param handler A callback which is called with the reduced value, or an
+     * error.
+     */
+    <I, O> void reduceParallel(final Collection<I> collection, final O identity, final BiHandler<I, Handler<AsyncResult<O>>> mapper, final BinaryOperator<O> combiner, final int limit, final boolean blocking, final Handler<AsyncResult<O>> handler);
+
     /**
      * The opposite of {@code filter}. Removes values that pass an {@code async}
      * truth test.
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.api;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+/**
+ * A queue keeping its tasks in a journal file until they complete. The file
+ * stays open until the queue is closed.
+ *
+ * @param <T> Handled task type
+ */
+public interface AsyncDurableQueue<T> extends AsyncWorker<T> {
+
+    /**
+     * Write every added task to the storage device, then call
+     * {@code handler}.
+     *
+     * @param handler Called once added tasks are durable.
+     */
+    void sync(final Handler<AsyncResult<Void>> handler);
+
+    /**
+     * Write every added task to the storage device and release the journal
+     * file. Tasks added afterwards are failed, pending ones are kept in the
+     * journal for the next run.
+     *
+     * @param handler Called once the journal file is released.
+     */
+    void close(final Handler<AsyncResult<Void>> handler);
+
+}
@@ -23,6 +23,8 @@ public interface AsyncFactory {
 
     AsyncFlows createFlows(final Context context);
 
+    AsyncFutures createFutures(final Context context);
+
     AsyncUtils createUtils(final Context context);
     
 }
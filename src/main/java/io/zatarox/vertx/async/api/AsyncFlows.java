@@ -16,11 +16,19 @@
 package io.zatarox.vertx.async.api;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.eventbus.MessageConsumer;
 import io.zatarox.vertx.async.impl.AbstractRetryOptions;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public interface AsyncFlows {
 
@@ -40,7 +48,22 @@ public interface AsyncFlows {
      * @return A cargo for processing tasks through the provided worker
      * function.
      */
-    <T> AsyncWorker createCargo(final BiHandler<T, Handler<AsyncResult<Void>>> worker);
+    <T> AsyncCargo createCargo(final BiHandler<T, Handler<AsyncResult<Void>>> worker);
+
+    /**
+     * Creates a cargo object with the specified concurrency and payload. Like
+     * {@code createCargo}, tasks are passed to the worker by batches of at
+     * most {@code payload} items, but up to {@code concurrency} batches are
+     * processed at the same time.
+     *
+     * @param <T> The manipulated type.
+     * @param worker The worker used to process batches of tasks
+     * @param concurrency Maximum number of batches processed in parallel.
+     * @param payload Maximum number of tasks in a batch.
+     * @return A cargo for processing tasks through the provided worker
+     * function.
+     */
+    <T> AsyncCargo<T> createCargo(final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker, final int concurrency, final int payload);
 
     /**
      * Creates a queue object with the specified concurrency. Tasks added to the
@@ -54,6 +77,215 @@ public interface AsyncFlows {
      */
     <T> AsyncWorker createQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker);
 
+    /**
+     * The same as {@code createQueue}, only tasks are run in ascending order of
+     * {@code comparator}, instead of first-in first-out. Tasks comparing equal
+     * are run in the order they were added.
+     *
+     * @param <T> The manipulated type.
+     * @param worker The worker used to process the queue
+     * @param comparator Order of the tasks, the lowest ones are run first.
+     * @param concurrency Maximum number of tasks processed in parallel.
+     * @return A priority queue of tasks for the worker function to complete.
+     */
+    <T> AsyncWorker createPriorityQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Comparator<T> comparator, final int concurrency);
+
+    /**
+     * The same as {@code createQueue}, only the concurrency limit adapts
+     * itself to the round-trip time of tasks (additive increase,
+     * multiplicative decrease). It grows while tasks complete as fast as the
+     * quickest ones, and shrinks when they slow down or fail. The current
+     * limit is returned by {@code AsyncWorker.getConcurrency}.
+     *
+     * @param <T> The manipulated type.
+     * @param worker The worker used to process the queue
+     * @param minimum Lowest concurrency limit, and the initial one.
+     * @param maximum Highest concurrency limit.
+     * @return A queue of tasks for the worker function to complete.
+     */
+    <T> AsyncWorker createAdaptiveQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int minimum, final int maximum);
+
+    /**
+     * The same as {@code createQueue}, only tasks are run in ascending order of
+     * {@code priority}, instead of first-in first-out. This variant is
+     * efficient for many tasks spread across few priority levels.
+     *
+     * @param <T> The manipulated type.
+     * @param worker The worker used to process the queue
+     * @param priority Priority of a task, the lowest values are run first.
+     * @param concurrency Maximum number of tasks processed in parallel.
+     * @return A priority queue of tasks for the worker function to complete.
+     */
+    <T> AsyncWorker createPriorityQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final ToIntFunction<T> priority, final int concurrency);
+
+    /**
+     * The same as {@code createQueue}, only workers are shared fairly between
+     * tenants. Each tenant has its own sub-queue and tenants with waiting
+     * tasks take turns, so a tenant with a large backlog cannot starve the
+     * others.
+     *
+     * @param <T> The manipulated type.
+     * @param <K> The tenant type.
+     * @param worker The worker used to process the queue
+     * @param tenant A function returning the tenant of a task.
+     * @param concurrency Maximum number of tasks processed in parallel.
+     * @return A fair queue of tasks for the worker function to complete.
+     */
+    <T, K> AsyncWorker createFairQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> tenant, final int concurrency);
+
+    /**
+     * The same as {@code createFairQueue}, only each tenant runs up to
+     * {@code weight} tasks in a row when its turn comes (weighted
+     * round-robin).
+     *
+     * @param <T> The manipulated type.
+     * @param <K> The tenant type.
+     * @param worker The worker used to process the queue
+     * @param tenant A function returning the tenant of a task.
+     * @param weight A function returning the weight of a tenant.
+     * @param concurrency Maximum number of tasks processed in parallel.
+     * @return A fair queue of tasks for the worker function to complete.
+     */
+    <T, K> AsyncWorker createFairQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> tenant, final ToIntFunction<K> weight, final int concurrency);
+
+    /**
+     * The same as {@code createQueue}, only tasks are spread over one queue per
+     * context, so workers use as many event loops. Each task goes to the
+     * least loaded queue.
+     *
+     * @param <T> The manipulated type.
+     * @param contexts Contexts running the queues, one per event loop.
+     * @param worker The worker used to process the queue
+     * @param concurrency Maximum number of tasks processed in parallel by
+     * each context.
+     * @return A sharded queue of tasks for the worker function to complete.
+     */
+    <T> AsyncWorker createShardedQueue(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency);
+
+    /**
+     * The same as {@code createShardedQueue}, only each task goes to the queue
+     * given by the hash of its key, so tasks of the same key start in order.
+     *
+     * @param <T> The manipulated type.
+     * @param <K> The key type.
+     * @param contexts Contexts running the queues, one per event loop.
+     * @param worker The worker used to process the queue
+     * @param key A function returning the key of a task.
+     * @param concurrency Maximum number of tasks processed in parallel by
+     * each context.
+     * @return A sharded queue of tasks for the worker function to complete.
+     */
+    <T, K> AsyncWorker createShardedQueue(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> key, final int concurrency);
+
+    /**
+     * The same as {@code createShardedQueue}, only a queue running out of tasks
+     * can steal waiting tasks from the busiest one. Tasks with a non-null key
+     * keep their order and are never stolen, tasks with a null key go to the
+     * least loaded queue and can be stolen.
+     *
+     * @param <T> The manipulated type.
+     * @param <K> The key type.
+     * @param contexts Contexts running the queues, one per event loop.
+     * @param worker The worker used to process the queue
+     * @param key A function returning the key of a task, or null.
+     * @param concurrency Maximum number of tasks processed in parallel by
+     * each context.
+     * @param stealing True to enable work stealing between queues.
+     * @return A sharded queue of tasks for the worker function to complete.
+     */
+    <T, K> AsyncWorker createShardedQueue(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> key, final int concurrency, final boolean stealing);
+
+    /**
+     * The same as {@code createQueue}, only tasks are kept in a journal file
+     * until they complete. Tasks left pending by a previous run are queued
+     * again when the queue is created. The journal file is opened on a worker
+     * thread, and stays open until the queue is closed.
+     *
+     * @param <T> The manipulated type.
+     * @param worker The worker used to process the queue
+     * @param path Path of the journal file, created if missing.
+     * @param codec Codec writing tasks to the journal.
+     * @param concurrency Maximum number of tasks processed in parallel.
+     * @param recovered Called with the result of each task queued again from
+     * the journal, or null to discard them. Such a task leaves the journal
+     * once it completes, even when it fails.
+     * @param handler Called with the durable queue, or with the error if the
+     * journal cannot be opened.
+     */
+    <T> void createDurableQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final String path, final MessageCodec<T, T> codec, final int concurrency, final Handler<AsyncResult<Void>> recovered, final Handler<AsyncResult<AsyncDurableQueue<T>>> handler);
+
+    /**
+     * Creates a queue distributed over the event bus. Tasks wait in the queue
+     * until a consumer created by {@code createEventBusConsumer} on the same
+     * address, on any node, is ready to run them.
+     *
+     * @param <T> The manipulated type.
+     * @param address Address of the queue.
+     * @param options Options of the messages carrying tasks, such as their
+     * codec, or null. Tasks do not time out unless a send timeout is set, but
+     * fail once their consumer is gone, such as when its node dies. A task
+     * failed either way may still run, or have run, on its consumer.
+     * @return A queue of tasks for consumers of {@code address} to complete.
+     */
+    <T> AsyncWorker createEventBusQueue(final String address, final DeliveryOptions options);
+
+    /**
+     * Runs tasks of the event bus queue of {@code address}, at most
+     * {@code concurrency} at once. Consumers only receive tasks when they have
+     * a free slot, so each one honours its own limit.
+     *
+     * @param <T> The manipulated type.
+     * @param address Address of the queue.
+     * @param worker The worker used to process tasks
+     * @param concurrency Maximum number of tasks processed in parallel.
+     * @return The consumer of tasks, to unregister to stop receiving tasks.
+     */
+    <T> MessageConsumer<T> createEventBusConsumer(final String address, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency);
+
+    /**
+     * Creates an executor running at most one task at a time per key, and any
+     * number of keys in parallel. Useful to serialize writes per entity
+     * without a global single-file queue.
+     *
+     * @param <K> The key type.
+     * @return An executor serializing tasks per key.
+     */
+    <K> KeyedSerialExecutor<K> createKeyedSerialExecutor();
+
+    /**
+     * Determines the best order for running the {@code tasks}, based on their
+     * dependencies. Each task is run as soon as all its dependencies have
+     * completed, concurrently with any other ready task. If any task passes an
+     * error to its callback, no more tasks are run and the main
+     * {@code handler} is immediately called with the error.
+     *
+     * Dependencies are checked before any task runs: an unknown dependency or
+     * a dependency cycle calls the {@code handler} with an
+     * {@code IllegalArgumentException}.
+     *
+     * @param <T> The manipulated type.
+     * @param tasks Tasks by name. The key of each pair is the names of the
+     * tasks it depends on, the value is the task, invoked with (results of the
+     * completed tasks by name, callback).
+     * @param handler A callback which is called with the results of all tasks
+     * by name, or an error.
+     */
+    <T> void auto(final Map<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> tasks, final Handler<AsyncResult<Map<String, T>>> handler);
+
+    /**
+     * The same as {@code auto}, only at most {@code limit} tasks are run at a
+     * time.
+     *
+     * @param <T> The manipulated type.
+     * @param tasks Tasks by name. The key of each pair is the names of the
+     * tasks it depends on, the value is the task, invoked with (results of the
+     * completed tasks by name, callback).
+     * @param limit The maximum number of tasks running at a time.
+     * @param handler A callback which is called with the results of all tasks
+     * by name, or an error.
+     */
+    <T> void auto(final Map<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> tasks, final int limit, final Handler<AsyncResult<Map<String, T>>> handler);
+
     /**
      * Applies the provided arguments to each function in the array, calling
      * {@code handler} after all functions have completed. If you only provide
@@ -103,6 +335,20 @@ public interface AsyncFlows {
      */
     <T> void parallel(final List<Handler<Handler<AsyncResult<T>>>> tasks, final Handler<AsyncResult<List<T>>> handler);
 
+    /**
+     * The same as {@code parallel}, only at most {@code limit} tasks are
+     * running at a time. The next task is only started when a running one
+     * completes.
+     *
+     * @param <T> Define the manipulated data type.
+     * @param tasks Collection of tasks to run.
+     * @param limit The maximum number of tasks running at a time.
+     * @param handler A callback to run once all the functions have completed
+     * successfully. This function gets a results array containing all the
+     * result arguments passed to the task callbacks.
+     */
+    <T> void parallelLimit(final List<Handler<Handler<AsyncResult<T>>>> tasks, final int limit, final Handler<AsyncResult<List<T>>> handler);
+
     /**
      * Runs the {@code tasks} array of functions in parallel, without waiting
      * until the previous function has completed. Once any the {@code tasks}
@@ -187,6 +433,36 @@ public interface AsyncFlows {
      */
     <T> void times(final int counter, final BiHandler<Integer, Handler<AsyncResult<T>>> consumer, final Handler<AsyncResult<List<T>>> handler);
 
+    /**
+     * The same as {@code times}, only at most {@code limit} executions are
+     * running at a time. Executions are generated from the iteration index
+     * when a running one completes, so only the results grow with
+     * {@code counter}.
+     *
+     * @param <T> Define the manipulated type.
+     * @param counter The number of times to run the function.
+     * @param limit The maximum number of executions running at a time.
+     * @param consumer The function to call {@code n} times. Invoked with the
+     * iteration index and a callback.
+     * @param handler A callback which is called with the results by iteration
+     * index, or an error.
+     */
+    <T> void timesLimit(final int counter, final int limit, final BiHandler<Integer, Handler<AsyncResult<T>>> consumer, final Handler<AsyncResult<List<T>>> handler);
+
+    /**
+     * The same as {@code times}, only each execution is started after the
+     * previous one has completed. Executions completing synchronously are
+     * looped over without posting to the context.
+     *
+     * @param <T> Define the manipulated type.
+     * @param counter The number of times to run the function.
+     * @param consumer The function to call {@code n} times. Invoked with the
+     * iteration index and a callback.
+     * @param handler A callback which is called with the results by iteration
+     * index, or an error.
+     */
+    <T> void timesSeries(final int counter, final BiHandler<Integer, Handler<AsyncResult<T>>> consumer, final Handler<AsyncResult<List<T>>> handler);
+
     /**
      * Repeatedly call {@code consumer} until {@code tester} returns
      * {@code false}. Calls {@code handler} when stopped, or an error occurs.
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.api;
+
+import io.vertx.core.Future;
+import io.zatarox.vertx.async.impl.AbstractRetryOptions;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The same functions as {@link AsyncCollections}, {@link AsyncFlows} and
+ * {@link AsyncUtils}, taking functions which return a {@link Future} and
+ * returning a {@link Future} instead of calling a handler.
+ */
+public interface AsyncFutures {
+
+    /**
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param function A function to apply to each item in {@code iterable}.
+     * @return The concatenated results.
+     * @see AsyncCollections#concat
+     */
+    <I, O> Future<Collection<O>> concat(final Collection<I> iterable, final Function<I, Future<Collection<O>>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param collection A collection to iterate over.
+     * @param function A truth test to apply to each item in {@code collection}.
+     * @return The first item passing the test, or {@code null} if none passed.
+     * @see AsyncCollections#detect
+     */
+    <T> Future<T> detect(final Collection<T> collection, final Function<T, Future<Boolean>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param function A function to apply to each item in {@code iterable}.
+     * @return Completed when all items are processed.
+     * @see AsyncCollections#each
+     */
+    <T> Future<Void> each(final Collection<T> iterable, final Function<T, Future<Void>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param collection A collection to iterate over.
+     * @param function A truth test to apply to each item in {@code collection}.
+     * @return True if every item passed the test.
+     * @see AsyncCollections#every
+     */
+    <T> Future<Boolean> every(final Collection<T> collection, final Function<T, Future<Boolean>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param function A truth test to apply to each item in {@code iterable}.
+     * @return The items passing the test.
+     * @see AsyncCollections#filter
+     */
+    <T> Future<Collection<T>> filter(final Collection<T> iterable, final Function<T, Future<Boolean>> function);
+
+    /**
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A list to iterate over.
+     * @param function A function to apply to each item in {@code iterable}.
+     * @return The transformed items, in the order of {@code iterable}.
+     * @see AsyncCollections#map
+     */
+    <I, O> Future<Collection<O>> map(final List<I> iterable, final Function<I, Future<O>> function);
+
+    /**
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param collection A collection to iterate over.
+     * @param memo The initial state of the reduction.
+     * @param function A function applied to each item and the current state.
+     * @return The reduced value.
+     * @see AsyncCollections#reduce
+     */
+    <I, O> Future<O> reduce(final Collection<I> collection, final O memo, final BiFunction<I, O, Future<O>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param function A truth test to apply to each item in {@code iterable}.
+     * @return The items not passing the test.
+     * @see AsyncCollections#reject
+     */
+    <T> Future<Collection<T>> reject(final Collection<T> iterable, final Function<T, Future<Boolean>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param collection A collection to iterate over.
+     * @param function A truth test to apply to each item in {@code collection}.
+     * @return True if at least one item passed the test.
+     * @see AsyncCollections#some
+     */
+    <T> Future<Boolean> some(final Collection<T> collection, final Function<T, Future<Boolean>> function);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to sort.
+     * @param comparator A comparator to sort with.
+     * @return The sorted items.
+     * @see AsyncCollections#sort
+     */
+    <T> Future<Collection<T>> sort(final Collection<T> iterable, final Comparator<T> comparator);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param tasks A list of tasks to run in parallel.
+     * @return The results, in the order of {@code tasks}.
+     * @see AsyncFlows#parallel
+     */
+    <T> Future<List<T>> parallel(final List<Supplier<Future<T>>> tasks);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param tasks A collection of tasks to run in parallel.
+     * @return The result of the first task to complete.
+     * @see AsyncFlows#race
+     */
+    <T> Future<T> race(final Collection<Supplier<Future<T>>> tasks);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param options The retry policy.
+     * @param task The task to run until it succeeds.
+     * @return The result of the first successful attempt.
+     * @see AsyncFlows#retry
+     */
+    <T> Future<T> retry(final AbstractRetryOptions options, final Supplier<Future<T>> task);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param tasks A collection of tasks to run one after another.
+     * @return The results, in the order of {@code tasks}.
+     * @see AsyncFlows#series
+     */
+    <T> Future<List<T>> series(final Collection<Supplier<Future<T>>> tasks);
+
+    /**
+     * @param <T> Define the manipulated type.
+     * @param counter The number of times to run the function.
+     * @param function A function called with the iteration index.
+     * @return The results, in the order of the iterations.
+     * @see AsyncFlows#times
+     */
+    <T> Future<List<T>> times(final int counter, final Function<Integer, Future<T>> function);
+
+    /**
+     * @param tester A synchronous test, performed after each execution.
+     * @param task The task to run until {@code tester} passes.
+     * @return Completed when {@code tester} passes.
+     * @see AsyncFlows#until
+     */
+    Future<Void> until(final BooleanSupplier tester, final Supplier<Future<Void>> task);
+
+    /**
+     * @param tester A synchronous test, performed before each execution.
+     * @param task The task to run while {@code tester} passes.
+     * @return Completed when {@code tester} fails.
+     * @see AsyncFlows#whilst
+     */
+    Future<Void> whilst(final BooleanSupplier tester, final Supplier<Future<Void>> task);
+
+    /**
+     * @param <T> Handled generic type
+     * @param task The task to run.
+     * @param unit Time unit used for the delay time.
+     * @param delay A time delay in the specified time unit.
+     * @return The result of the task, or a timeout error.
+     * @see AsyncUtils#timeout
+     */
+    <T> Future<T> timeout(final Supplier<Future<T>> task, final TimeUnit unit, final long delay);
+
+}
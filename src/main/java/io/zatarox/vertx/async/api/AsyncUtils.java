@@ -17,6 +17,8 @@ package io.zatarox.vertx.async.api;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -46,6 +48,42 @@ public interface AsyncUtils {
      */
     <T> Handler<Handler<AsyncResult<T>>> constant(final T value);
 
+    /**
+     * Calls {@code handler} on the context with the outcome of {@code stage}.
+     * The handler is called directly when the stage completes on the context,
+     * or is already complete when called from the context, and is only posted
+     * to the context otherwise.
+     *
+     * @param <T> Handled generic type.
+     * @param stage The stage to wait for.
+     * @param handler An handler called with the outcome of the stage.
+     */
+    <T> void fromCompletionStage(final CompletionStage<T> stage, final Handler<AsyncResult<T>> handler);
+
+    /**
+     * The same as {@code fromCompletionStage}, for a list of stages completing
+     * in parallel. If any stage fails, the handler is immediately called with
+     * the error.
+     *
+     * @param <T> Handled generic type.
+     * @param stages The stages to wait for.
+     * @param handler An handler called with the results, in the order of
+     * {@code stages}.
+     */
+    <T> void fromCompletionStages(final List<? extends CompletionStage<T>> stages, final Handler<AsyncResult<List<T>>> handler);
+
+    /**
+     * Runs {@code function} on the context and returns a stage completed with
+     * its outcome. The function is run directly when called from the context.
+     * The stage is completed from the thread calling back, so dependent
+     * stages run there without any extra hop.
+     *
+     * @param <T> Handled generic type.
+     * @param function A function which will be runned.
+     * @return A stage completed with the outcome of the function.
+     */
+    <T> CompletionStage<T> toCompletionStage(final Handler<Handler<AsyncResult<T>>> function);
+
     /**
      * Caches the results of an async function. When creating a hash to store
      * function results against, the callback is omitted from the hash and an
@@ -15,6 +15,7 @@
  */
 package io.zatarox.vertx.async.api;
 
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
@@ -55,6 +56,12 @@ public interface AsyncWorker<T> {
      */
     boolean isIdle();
 
+    /**
+     * @return A snapshot of counters and timings of the worker.
+     */
+    @GenIgnore
+    AsyncWorkerMetrics getMetrics();
+
     /**
      * Removes the drain callback and empties remaining tasks from the queue
      * forcing it to go idle.
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.api;
+
+/**
+ * Snapshot of the activity of a worker since its creation.
+ */
+public interface AsyncWorkerMetrics {
+
+    /**
+     * @return Number of tasks added.
+     */
+    long getEnqueued();
+
+    /**
+     * @return Number of tasks passed to the worker.
+     */
+    long getStarted();
+
+    /**
+     * @return Number of tasks completed with success.
+     */
+    long getCompleted();
+
+    /**
+     * @return Number of tasks completed with a failure.
+     */
+    long getFailed();
+
+    /**
+     * @return Number of tasks waiting for a worker.
+     */
+    long getDepth();
+
+    /**
+     * @return Number of running workers.
+     */
+    int getRunning();
+
+    /**
+     * @return The concurrency limit.
+     */
+    int getConcurrency();
+
+    /**
+     * @return Time spent by tasks waiting for a worker.
+     */
+    Histogram getWaitTime();
+
+    /**
+     * @return Time spent by tasks in the worker.
+     */
+    Histogram getServiceTime();
+
+}
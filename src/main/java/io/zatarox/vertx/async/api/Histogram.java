@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.api;
+
+/**
+ * Snapshot of a distribution of durations, in nanoseconds. Values are
+ * approximated within 12.5% of their actual magnitude.
+ */
+public interface Histogram {
+
+    /**
+     * @return Number of recorded values.
+     */
+    long getCount();
+
+    /**
+     * @return Highest recorded value.
+     */
+    long getMax();
+
+    /**
+     * @return Mean of recorded values.
+     */
+    double getMean();
+
+    /**
+     * @param percentile Percentile to compute, between 0 and 100.
+     * @return Value below which {@code percentile}% of values fall.
+     */
+    long getPercentile(final double percentile);
+
+}
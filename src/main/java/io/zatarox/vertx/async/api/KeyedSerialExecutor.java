@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.api;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+/**
+ * Runs at most one task at a time per key, with no limit across keys. Tasks of
+ * a key run in the order they were submitted. The state of a key is dropped as
+ * soon as its last task completes, so memory only grows with active keys.
+ *
+ * @param <K> The key type.
+ */
+public interface KeyedSerialExecutor<K> {
+
+    /**
+     * Run {@code task} once every task previously submitted for {@code key}
+     * has completed.
+     *
+     * @param <T> The result type.
+     * @param key Key serializing the task, an entity id for instance.
+     * @param task An asynchronous function to run.
+     * @param handler Called with the result of {@code task}.
+     */
+    <T> void execute(final K key, final Handler<Handler<AsyncResult<T>>> task, final Handler<AsyncResult<T>> handler);
+
+    /**
+     * @return Number of keys with a running task.
+     */
+    int getActiveKeys();
+
+    /**
+     * @return True if no task is running.
+     */
+    boolean isIdle();
+
+}
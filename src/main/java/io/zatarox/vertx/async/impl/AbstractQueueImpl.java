@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.zatarox.vertx.async.api.BiHandler;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base of queues passing one task at a time to a group of workers. Subclasses
+ * only define how waiting tasks are stored and in which order they are
+ * retrieved.
+ * <p>
+ * Tasks can be added from any thread, and are dispatched by a drain loop
+ * running on the context of the queue,
+ * which fills every free slot in one pass. A task completed synchronously
+ * during the loop only flags it to run another pass, so the stack does not
+ * grow with the number of tasks.
+ *
+ * @param <T> Handled task type
+ */
+public abstract class AbstractQueueImpl<T> extends AbstractWorkerImpl<T> {
+
+    private final BiHandler<T, Handler<AsyncResult<Void>>> worker;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    // Only accessed from the context of the queue
+    private boolean draining = false;
+    private boolean pending = false;
+
+    protected AbstractQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency) {
+        super(context, concurrency);
+        this.worker = worker;
+    }
+
+    @Override
+    public boolean add(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
+        return add(new QueuedTask<>(task, handler), top);
+    }
+
+    boolean add(final QueuedTask<T> item, final boolean top) {
+        try {
+            final boolean result = offer(item, top);
+            if (result) {
+                enqueued(1);
+            }
+            return result;
+        } finally {
+            if (current.get() < concurrency.get() && !paused.get()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Take over tasks waiting in another worker, at the end of the queue.
+     *
+     * @param items Tasks removed from another worker.
+     */
+    void adopt(final Collection<QueuedTask<T>> items) {
+        items.stream().forEach(item -> {
+            offer(item, false);
+        });
+        moved(items.size());
+        schedule();
+    }
+
+    /**
+     * Run the drain loop on the context of the queue, once for any number of
+     * calls made before it runs.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            context().runOnContext(event -> {
+                scheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * @param item Task and its handler to store.
+     * @param top Store the task before the others of the same rank ?
+     * @return True is operation is successful
+     */
+    protected abstract boolean offer(final QueuedTask<T> item, final boolean top);
+
+    /**
+     * @return Next task to run, or null if none is waiting.
+     */
+    protected abstract QueuedTask<T> poll();
+
+    /**
+     * @return True if no task is waiting.
+     */
+    protected abstract boolean isEmpty();
+
+    @Override
+    public boolean isIdle() {
+        return current.get() == 0 && isEmpty();
+    }
+
+    @Override
+    public void handle(Void event) {
+        if (Vertx.currentContext() == context()) {
+            drain();
+        } else {
+            schedule();
+        }
+    }
+
+    private void drain() {
+        if (draining) {
+            pending = true;
+            return;
+        }
+        draining = true;
+        try {
+            do {
+                pending = false;
+                QueuedTask<T> task;
+                while (current.get() < concurrency.get() && !paused.get() && (task = poll()) != null) {
+                    current.incrementAndGet();
+                    run(task);
+                }
+            } while (pending);
+        } finally {
+            draining = false;
+        }
+        if (isEmpty()) {
+            fireEmptyPool();
+        }
+    }
+
+    private void run(final QueuedTask<T> task) {
+        final long start = System.nanoTime();
+        started(task, start);
+        worker.handle(task.getKey(), result -> {
+            completed(start, result.failed());
+            task.getValue().handle(result);
+            current.decrementAndGet();
+            this.handle(null);
+        });
+    }
+
+}
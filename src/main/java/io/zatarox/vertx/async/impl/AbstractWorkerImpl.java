@@ -15,14 +15,17 @@
  */
 package io.zatarox.vertx.async.impl;
 
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.impl.ConcurrentHashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import io.zatarox.vertx.async.api.AsyncWorker;
 import io.zatarox.vertx.async.api.AsyncWorkerListener;
+import io.zatarox.vertx.async.api.AsyncWorkerMetrics;
 
 public abstract class AbstractWorkerImpl<T> implements AsyncWorker<T>, Handler<Void> {
 
@@ -30,11 +33,47 @@ public abstract class AbstractWorkerImpl<T> implements AsyncWorker<T>, Handler<V
     protected final AtomicInteger concurrency = new AtomicInteger(0);
     protected final AtomicBoolean paused = new AtomicBoolean(false);
     protected final AtomicInteger current = new AtomicInteger(0);
+    private volatile AimdConcurrencyLimit adaptive = null;
+    private volatile Context context = null;
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder moved = new LongAdder();
+    private final LogLinearHistogram waitTime = new LogLinearHistogram();
+    private final LogLinearHistogram serviceTime = new LogLinearHistogram();
 
     protected AbstractWorkerImpl(final int concurrency) {
+        this(null, concurrency);
+    }
+
+    /**
+     * @param context Context running the worker, or null to capture the
+     * current one on first use.
+     * @param concurrency Concurrency limit
+     */
+    protected AbstractWorkerImpl(final Context context, final int concurrency) {
+        this.context = context;
         setConcurrency(concurrency);
     }
 
+    /**
+     * @return The context running the worker, given at creation or captured
+     * on first use.
+     */
+    protected Context context() {
+        Context result = context;
+        if (result == null) {
+            result = Vertx.currentContext();
+            if (result == null) {
+                throw new IllegalStateException("No context bound to the worker");
+            }
+            context = result;
+        }
+        return result;
+    }
+
     public int getConcurrency() {
         return concurrency.get();
     }
@@ -43,9 +82,108 @@ public abstract class AbstractWorkerImpl<T> implements AsyncWorker<T>, Handler<V
         if (concurrency < 1) {
             throw new IllegalArgumentException("Must be positive");
         }
+        this.adaptive = null;
         this.concurrency.set(concurrency);
     }
 
+    public boolean isAdaptive() {
+        return adaptive != null;
+    }
+
+    /**
+     * Let the concurrency limit follow the round-trip time of tasks, between
+     * {@code minimum} and {@code maximum}. Setting a fixed concurrency turns
+     * the adaptive mode off.
+     *
+     * @param minimum Lowest concurrency limit, and the initial one.
+     * @param maximum Highest concurrency limit.
+     */
+    public void setAdaptiveConcurrency(final int minimum, final int maximum) {
+        final AimdConcurrencyLimit limit = new AimdConcurrencyLimit(minimum, maximum);
+        this.adaptive = limit;
+        this.concurrency.set(limit.getLimit());
+    }
+
+    @Override
+    public AsyncWorkerMetrics getMetrics() {
+        return new AsyncWorkerMetricsImpl(enqueued.sum(), started.sum(), succeeded.sum(), failed.sum(),
+                getDepth(), current.get(), concurrency.get(), waitTime.snapshot(), serviceTime.snapshot());
+    }
+
+    /**
+     * @return Number of tasks waiting for a worker.
+     */
+    public long getDepth() {
+        return Math.max(0, enqueued.sum() + moved.sum() - started.sum() - discarded.sum());
+    }
+
+    /**
+     * Account for tasks added to the worker.
+     *
+     * @param count Number of added tasks.
+     */
+    protected void enqueued(final int count) {
+        enqueued.add(count);
+    }
+
+    /**
+     * Account for tasks removed without being started.
+     *
+     * @param count Number of removed tasks.
+     */
+    protected void discarded(final int count) {
+        discarded.add(count);
+    }
+
+    /**
+     * Account for waiting tasks moved from or to another worker.
+     *
+     * @param count Number of tasks received, negative if given away.
+     */
+    protected void moved(final int count) {
+        moved.add(count);
+    }
+
+    /**
+     * Account for a task passed to the worker.
+     *
+     * @param task The started task.
+     * @param start Value of {@code System.nanoTime()} when the task started.
+     */
+    protected void started(final QueuedTask<?> task, final long start) {
+        started.increment();
+        waitTime.record(start - task.getEnqueued());
+    }
+
+    /**
+     * Account for a completed task.
+     *
+     * @param start Value of {@code System.nanoTime()} when the task started.
+     * @param failed True if the task failed.
+     */
+    protected void completed(final long start, final boolean failed) {
+        completed(start, 1, failed ? 1 : 0);
+    }
+
+    /**
+     * Account for a completed batch of tasks, and feed the adaptive limit if
+     * any.
+     *
+     * @param start Value of {@code System.nanoTime()} when the batch started.
+     * @param count Number of tasks in the batch.
+     * @param failures Number of failed tasks in the batch.
+     */
+    protected void completed(final long start, final int count, final int failures) {
+        final long elapsed = System.nanoTime() - start;
+        serviceTime.record(elapsed);
+        succeeded.add(count - failures);
+        failed.add(failures);
+        final AimdConcurrencyLimit limit = adaptive;
+        if (limit != null) {
+            concurrency.set(limit.update(elapsed, current.get(), failures > 0));
+        }
+    }
+
     public int getRunning() {
         return current.get();
     }
@@ -67,7 +205,7 @@ public abstract class AbstractWorkerImpl<T> implements AsyncWorker<T>, Handler<V
     public void setPaused(boolean paused) {
         this.paused.set(paused);
         if (!paused && current.get() < 1) {
-            Vertx.currentContext().runOnContext(this);
+            context().runOnContext(this);
         }
     }
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Additive-increase/multiplicative-decrease concurrency limit. The limit grows
+ * by one every window of {@code limit} successful tasks while the workers are
+ * busy, and is multiplied by {@code backoff} when a task fails or when the
+ * smoothed round-trip time exceeds {@code tolerance} times its lowest value
+ * over the last {@code WINDOW} tasks, which is the sign of requests queueing
+ * downstream. Smoothing keeps a mix of fast and slow tasks from looking like
+ * queueing, and the window lets the baseline follow downstream changes.
+ * <p>
+ * Like the increase, the decrease happens at most once per window: the tasks
+ * in flight when the limit drops complete before it can drop again, so a
+ * burst of slow or failed tasks backs off once rather than once per task.
+ */
+public final class AimdConcurrencyLimit {
+
+    private static final int WINDOW = 100;
+    private static final double SMOOTHING = 0.1;
+
+    private final int minimum;
+    private final int maximum;
+    private final double backoff;
+    private final double tolerance;
+    private double limit;
+    // Exponential moving average of round-trip times, and the total weight
+    // of its samples to correct the bias of the first ones
+    private double average = 0;
+    private double weight = 0;
+    // Index and smoothed round-trip time of the candidates to the lowest one
+    // of the window, both increasing
+    private final Deque<double[]> window = new ArrayDeque<>();
+    private long samples = 0;
+    // First sample allowed to decrease the limit again
+    private long recovery = 0;
+
+    public AimdConcurrencyLimit(final int minimum, final int maximum) {
+        this(minimum, maximum, 0.9, 2.0);
+    }
+
+    public AimdConcurrencyLimit(final int minimum, final int maximum, final double backoff, final double tolerance) {
+        if (minimum < 1 || maximum < minimum) {
+            throw new IllegalArgumentException("Bounds must be positive and ordered");
+        }
+        if (backoff <= 0 || backoff >= 1 || tolerance < 1) {
+            throw new IllegalArgumentException("Backoff must be in ]0, 1[ and tolerance at least 1");
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.backoff = backoff;
+        this.tolerance = tolerance;
+        this.limit = minimum;
+    }
+
+    /**
+     * @return Current limit.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Update the limit with a completed task.
+     *
+     * @param rtt Round-trip time of the task, in nanoseconds.
+     * @param inflight Number of tasks running when it completed.
+     * @param failed True if the task failed.
+     * @return The new limit.
+     */
+    public synchronized int update(final long rtt, final int inflight, final boolean failed) {
+        average = average * (1 - SMOOTHING) + rtt * SMOOTHING;
+        weight = weight * (1 - SMOOTHING) + SMOOTHING;
+        final double smoothed = average / weight;
+        samples++;
+        while (!window.isEmpty() && window.peekLast()[1] >= smoothed) {
+            window.pollLast();
+        }
+        window.offerLast(new double[]{samples, smoothed});
+        if (window.peekFirst()[0] <= samples - WINDOW) {
+            window.pollFirst();
+        }
+        if (failed || smoothed > window.peekFirst()[1] * tolerance) {
+            if (samples >= recovery) {
+                recovery = samples + (long) Math.ceil(limit);
+                limit = Math.max(minimum, limit * backoff);
+            }
+        } else if (inflight * 2 >= limit) {
+            limit = Math.min(maximum, limit + 1.0 / limit);
+        }
+        return (int) limit;
+    }
+
+}
@@ -16,28 +16,141 @@
 package io.zatarox.vertx.async.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.zatarox.vertx.async.api.AsyncCargo;
 import io.zatarox.vertx.async.api.BiHandler;
 import io.zatarox.vertx.async.api.Pair;
+import io.zatarox.vertx.async.utils.BatchFailureException;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
 
-public final class AsyncCargoImpl<T> extends AbstractWorkerImpl<Collection<T>> {
+public final class AsyncCargoImpl<T> extends AbstractWorkerImpl<Collection<T>> implements AsyncCargo<T> {
 
     private final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker;
-    private final Deque<Pair<T, Handler<AsyncResult<Void>>>> tasks = new ConcurrentLinkedDeque();
+    private final Deque<QueuedTask<T>> tasks = new ConcurrentLinkedDeque();
+    // ConcurrentLinkedDeque.size() walks the whole deque, so track it apart
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final AtomicInteger payload = new AtomicInteger(0);
+    private final AtomicLong weight = new AtomicLong(0);
+    private final AtomicLong linger = new AtomicLong(0);
+    private final AtomicInteger minBatch = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxWeight = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicLong timer = new AtomicLong(-1);
+    private final AtomicBoolean expired = new AtomicBoolean(false);
+    private final AtomicBoolean managed = new AtomicBoolean(false);
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile ToIntFunction<T> weigher = null;
+    // Only accessed from the context of the cargo
+    private boolean draining = false;
+    private boolean pending = false;
 
-    public AsyncCargoImpl(final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker, final int payload) {
-        super(payload);
+    public AsyncCargoImpl(final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker, final int concurrency, final int payload) {
+        this(null, worker, concurrency, payload);
+    }
+
+    /**
+     * @param context Context running the cargo, tasks can be added from any
+     * thread.
+     * @param worker The worker used to process batches
+     * @param concurrency Number of batches processed at once
+     * @param payload Maximum number of tasks in a batch
+     */
+    public AsyncCargoImpl(final Context context, final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker, final int concurrency, final int payload) {
+        super(context, concurrency);
+        setPayload(payload);
         this.worker = worker;
     }
 
+    /**
+     * Process one batch at a time, as before concurrency and payload were
+     * split. The concurrency used to report the payload while a single batch
+     * ran, it now reports 1.
+     *
+     * @param worker The worker used to process batches
+     * @param payload Maximum number of tasks in a batch
+     * @deprecated Use {@link #AsyncCargoImpl(BiHandler, int, int)} to set the
+     * concurrency and the payload apart.
+     */
+    @Deprecated
+    public AsyncCargoImpl(final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker, final int payload) {
+        this(worker, 1, payload);
+    }
+
     public AsyncCargoImpl(final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker) {
-        this(worker, Integer.MAX_VALUE);
+        this(worker, 1, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getPayload() {
+        return payload.get();
+    }
+
+    @Override
+    public void setPayload(final int payload) {
+        if (payload < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.payload.set(payload);
+    }
+
+    @Override
+    public long getLinger() {
+        return linger.get();
+    }
+
+    @Override
+    public void setLinger(final TimeUnit unit, final long delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Must be positive or zero");
+        }
+        this.linger.set(unit.toMillis(delay));
+    }
+
+    @Override
+    public int getMinBatch() {
+        return Math.min(minBatch.get(), payload.get());
+    }
+
+    @Override
+    public void setMinBatch(final int minBatch) {
+        if (minBatch < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.minBatch.set(minBatch);
+    }
+
+    @Override
+    public int getMaxWeight() {
+        return maxWeight.get();
+    }
+
+    @Override
+    public void setWeigher(final ToIntFunction<T> weigher, final int maxWeight) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.weigher = weigher;
+        this.maxWeight.set(weigher == null ? Integer.MAX_VALUE : maxWeight);
+    }
+
+    @Override
+    public boolean isManaged() {
+        return managed.get();
+    }
+
+    @Override
+    public void setManaged(final boolean managed) {
+        this.managed.set(managed);
     }
 
     @Override
@@ -49,53 +162,180 @@ public final class AsyncCargoImpl<T> extends AbstractWorkerImpl<Collection<T>> {
             });
             return result.get();
         } finally {
-            if (current.get() < 1 && !paused.get()) {
-                Vertx.currentContext().runOnContext(this);
+            if (current.get() < concurrency.get() && !paused.get()) {
+                this.handle(null);
             }
         }
     }
 
     private boolean addInternal(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
-        final Pair<T, Handler<AsyncResult<Void>>> item = new PairImpl(task, handler);
+        final QueuedTask<T> item = new QueuedTask<>(task, handler);
         final boolean result;
         if (!top) {
             result = tasks.offer(item);
         } else {
             result = tasks.offerFirst(item);
         }
+        if (result) {
+            enqueued(1);
+            size.incrementAndGet();
+            weight.addAndGet(weigh(task));
+        }
+        return result;
+    }
+
+    private int weigh(final T task) {
+        final ToIntFunction<T> function = weigher;
+        return function == null ? 0 : function.applyAsInt(task);
+    }
+
+    /**
+     * Retrieves and removes at most {@code limit} tasks from the head of the
+     * queue, without exceeding the maximum weight of a batch.
+     *
+     * @param limit Maximum number of tasks to retrieve.
+     * @return Polled tasks, in queue order.
+     */
+    private Collection<Pair<T, Handler<AsyncResult<Void>>>> poll(final int limit) {
+        final Collection<Pair<T, Handler<AsyncResult<Void>>>> result = new ArrayList<>(Math.min(limit, size.get()));
+        final long now = System.nanoTime();
+        long total = 0;
+        QueuedTask<T> item;
+        while (result.size() < limit && (item = tasks.poll()) != null) {
+            final int w = weigh(item.getKey());
+            if (!result.isEmpty() && total + w > maxWeight.get()) {
+                tasks.offerFirst(item);
+                break;
+            }
+            total += w;
+            size.decrementAndGet();
+            weight.addAndGet(-w);
+            started(item, now);
+            result.add(item);
+        }
         return result;
     }
 
+    private boolean isBatchReady() {
+        return linger.get() < 1 || expired.get()
+                || size.get() >= getMinBatch() || weight.get() >= maxWeight.get();
+    }
+
     @Override
     public boolean isIdle() {
-        return current.get() == 0 && tasks.isEmpty();
+        return current.get() == 0 && size.get() == 0;
     }
 
     @Override
     public void clear() {
-        tasks.clear();
+        QueuedTask<T> item;
+        int count = 0;
+        while ((item = tasks.poll()) != null) {
+            count++;
+            size.decrementAndGet();
+            weight.addAndGet(-weigh(item.getKey()));
+        }
+        discarded(count);
     }
 
     @Override
     public void handle(Void event) {
-        if (tasks.isEmpty()) {
+        if (Vertx.currentContext() == context()) {
+            drain();
+        } else {
+            schedule();
+        }
+    }
+
+    /**
+     * Run the drain loop on the context of the cargo, once for any number of
+     * calls made before it runs.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            context().runOnContext(event -> {
+                scheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Dispatch every ready batch a free slot allows. Like the queues, a batch
+     * completed synchronously only flags the loop to run another pass, so the
+     * stack does not grow with the number of batches.
+     */
+    private void drain() {
+        if (draining) {
+            pending = true;
+            return;
+        }
+        draining = true;
+        try {
+            do {
+                pending = false;
+                while (!paused.get() && current.get() < concurrency.get() && size.get() > 0 && isBatchReady()) {
+                    dispatch();
+                }
+            } while (pending);
+        } finally {
+            draining = false;
+        }
+        if (size.get() < 1) {
             fireEmptyPool();
-        } else if (!paused.get()) {
-            final int size = tasks.size() < concurrency.get() ? tasks.size() : concurrency.get();
-            final Collection<Pair<T, Handler<AsyncResult<Void>>>> tasksToPass = new ArrayList<>(size);
-            for (int i = 0; i < size; i++) {
-                tasksToPass.add(tasks.poll());
-            }
-            current.incrementAndGet();
-            if (size == tasksToPass.size()) {
-                fireFullPool();
+        } else if (!paused.get() && !isBatchReady() && timer.get() < 0) {
+            timer.set(context().owner().setTimer(linger.get(), id -> {
+                timer.set(-1);
+                expired.set(true);
+                if (current.get() < concurrency.get()) {
+                    this.handle(null);
+                }
+            }));
+        }
+    }
+
+    private void dispatch() {
+        final long id = timer.getAndSet(-1);
+        if (id >= 0) {
+            context().owner().cancelTimer(id);
+        }
+        expired.set(false);
+        final Collection<Pair<T, Handler<AsyncResult<Void>>>> tasksToPass = poll(payload.get());
+        if (current.incrementAndGet() >= concurrency.get()) {
+            fireFullPool();
+        }
+        final long start = System.nanoTime();
+        worker.handle(tasksToPass, result -> {
+            completed(start, tasksToPass.size(), failures(result, tasksToPass.size()));
+            current.decrementAndGet();
+            if (managed.get()) {
+                complete(tasksToPass, result);
             }
-            Vertx.currentContext().runOnContext(event1 -> {
-                worker.handle(tasksToPass, event2 -> {
-                    current.decrementAndGet();
-                    this.handle(event1);
-                });
-            });
+            this.handle(null);
+        });
+    }
+
+    private int failures(final AsyncResult<Void> result, final int count) {
+        final int failures;
+        if (result.succeeded()) {
+            failures = 0;
+        } else if (managed.get() && result.cause() instanceof BatchFailureException) {
+            failures = Math.min(count, ((BatchFailureException) result.cause()).getFailures().size());
+        } else {
+            failures = count;
+        }
+        return failures;
+    }
+
+    private void complete(final Collection<Pair<T, Handler<AsyncResult<Void>>>> batch, final AsyncResult<Void> result) {
+        final BatchFailureException partial = result.failed() && result.cause() instanceof BatchFailureException
+                ? (BatchFailureException) result.cause() : null;
+        // A single result instance is shared by every item of the same outcome
+        final AsyncResult<Void> shared = partial == null ? result : DefaultAsyncResult.succeed();
+        int position = 0;
+        for (final Pair<T, Handler<AsyncResult<Void>>> item : batch) {
+            final Throwable cause = partial == null ? null : partial.getFailure(position++);
+            item.getValue().handle(cause == null ? shared : DefaultAsyncResult.fail(cause));
         }
     }
 
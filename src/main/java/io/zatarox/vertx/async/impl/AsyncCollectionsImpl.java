@@ -19,6 +19,8 @@ import io.zatarox.vertx.async.utils.DefaultAsyncResult;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.core.streams.WriteStream;
 import io.zatarox.vertx.async.api.AsyncCollections;
 import io.zatarox.vertx.async.api.BiHandler;
 import io.zatarox.vertx.async.api.Pair;
@@ -26,6 +28,8 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.stream.Stream;
 
 public final class AsyncCollectionsImpl implements AsyncCollections {
@@ -135,6 +139,56 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
         }
     }
 
+    /**
+     * The same as {@code each}, only the {@code consumer} is applied to one
+     * item at a time, in the iteration order of {@code iterable}. Items
+     * completing synchronously are looped over without posting to the
+     * context.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called when all {@code consumer}
+     * functions have finished, or an error occurs.
+     */
+    @Override
+    public <T> void eachSeries(final Collection<T> iterable, final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler) {
+        series(iterable, consumer, (item, result) -> {
+        }, handler);
+    }
+
+    /**
+     * Applies the function {@code consumer} to each item pulled from
+     * {@code iterator}, with at most {@code limit} items in progress. Items
+     * are only pulled from the {@code iterator} when a slot is free, so
+     * generated or paged sources never have to be fully materialized. If the
+     * {@code consumer} passes an error to its callback, no more items are
+     * pulled and the main {@code handler} is immediately called with the
+     * error.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterator An iterator to pull items from. It is only accessed from
+     * the context.
+     * @param limit The maximum number of items in progress at a time.
+     * @param consumer A function to apply to each item in {@code iterator}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called when the {@code iterator} is
+     * exhausted and all {@code consumer} functions have finished, or an error
+     * occurs.
+     */
+    @Override
+    public <T> void each(final Iterator<T> iterator, final int limit, final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        context.runOnContext(event -> {
+            new IteratorProcessor<T, Void>(context, iterator, limit, consumer, (item, result) -> false, result -> {
+                handler.handle(result.failed() ? DefaultAsyncResult.fail(result) : DefaultAsyncResult.succeed());
+            }).start();
+        });
+    }
+
     /**
      * Produces a new collection of values by mapping each value in
      * {@code iterable} through the {@code consumer} function. The
@@ -199,6 +253,118 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
         }
     }
 
+    /**
+     * The same as {@code map}, only the {@code consumer} is applied to one
+     * item at a time, in the iteration order of {@code iterable}. Items
+     * completing synchronously are looped over without posting to the
+     * context.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called with the transformed items, in
+     * the iteration order of {@code iterable}, or an error.
+     */
+    @Override
+    public <I, O> void mapSeries(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final Handler<AsyncResult<Collection<O>>> handler) {
+        final List<O> results = new ArrayList<>(iterable.size());
+        series(iterable, consumer, (item, result) -> {
+            results.add(result);
+        }, event -> {
+            handler.handle(event.failed() ? DefaultAsyncResult.fail(event) : DefaultAsyncResult.succeed(results));
+        });
+    }
+
+    /**
+     * Produces values by mapping each item of {@code iterable} through the
+     * {@code consumer} function, in parallel, and passes each of them to
+     * {@code emitter} with its index as soon as it completes, instead of
+     * holding every result until the last one. If {@code consumer} passes an
+     * error to its callback, no more values are emitted and the main
+     * {@code handler} is immediately called with the error.
+     *
+     * Note, that values are emitted in completion order, which may differ from
+     * the order of {@code iterable}. Use the index to restore it if needed.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param emitter A function called with (index, transformed item) for each
+     * item as soon as it completes.
+     * @param handler A callback which is called when all {@code consumer}
+     * functions have finished and their values are emitted, or an error
+     * occurs.
+     */
+    @Override
+    public <I, O> void map(final List<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final BiHandler<Integer, O> emitter, final Handler<AsyncResult<Void>> handler) {
+        emit(iterable, consumer, emitter, handler);
+    }
+
+    /**
+     * Produces a new stream of values by mapping each item of {@code stream}
+     * through the {@code consumer} function, with at most {@code limit} items
+     * in progress. Results are written to {@code output} in the order of the
+     * {@code stream}. An item holds its slot until its result is written, and
+     * writes wait for the {@code output} to drain when its write queue is
+     * full, so memory stays bounded whatever the size of the {@code stream}.
+     * If the {@code consumer} passes an error to its callback, or the
+     * {@code stream} fails, the {@code stream} is paused and the main
+     * {@code handler} is immediately called with the error.
+     *
+     * Note, the {@code output} is not ended, it is up to the {@code handler}.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param stream A stream to iterate over.
+     * @param limit The maximum number of items in progress at a time.
+     * @param consumer A function to apply to each item in {@code stream}.
+     * Invoked with (item, callback).
+     * @param output The stream the transformed items are written to.
+     * @param handler A callback which is called when the {@code stream} has
+     * ended and all results are written, or an error occurs.
+     */
+    @Override
+    public <I, O> void mapStream(final ReadStream<I> stream, final int limit, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final WriteStream<O> output, final Handler<AsyncResult<Void>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        context.runOnContext(event -> {
+            new ReadStreamProcessor<>(context, stream, limit, consumer, output, handler).start();
+        });
+    }
+
+    /**
+     * Applies the function {@code consumer} to each item of {@code stream},
+     * with at most {@code limit} items in progress. The {@code stream} is
+     * paused when the limit is reached and resumed as items complete, so
+     * memory stays bounded whatever the size of the {@code stream}. If the
+     * {@code consumer} passes an error to its callback, or the {@code stream}
+     * fails, the {@code stream} is paused and the main {@code handler} is
+     * immediately called with the error.
+     *
+     * @param <T> Define the manipulated type.
+     * @param stream A stream to iterate over.
+     * @param limit The maximum number of items in progress at a time.
+     * @param consumer A function to apply to each item in {@code stream}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called when the {@code stream} has
+     * ended and all {@code consumer} functions have finished, or an error
+     * occurs.
+     */
+    @Override
+    public <T> void eachStream(final ReadStream<T> stream, final int limit, final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        context.runOnContext(event -> {
+            new ReadStreamProcessor<>(context, stream, limit, consumer, null, handler).start();
+        });
+    }
+
     /**
      * Returns a new collection of all the values in {@code iterable} which pass
      * an async truth test. This operation is performed in parallel, but the
@@ -250,6 +416,31 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
         }
     }
 
+    /**
+     * The same as {@code filter}, only the {@code consumer} is applied to one
+     * item at a time, in the iteration order of {@code iterable}. Items
+     * completing synchronously are looped over without posting to the
+     * context.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A truth test to apply to each item in {@code iterable}.
+     * Invoked with (item, callback).
+     * @param handler A callback which is called with the items passing the
+     * test, in the iteration order of {@code iterable}, or an error.
+     */
+    @Override
+    public <T> void filterSeries(final Collection<T> iterable, final BiHandler<T, Handler<AsyncResult<Boolean>>> consumer, final Handler<AsyncResult<Collection<T>>> handler) {
+        final List<T> results = new ArrayList<>();
+        series(iterable, consumer, (item, result) -> {
+            if (Boolean.TRUE.equals(result)) {
+                results.add(item);
+            }
+        }, event -> {
+            handler.handle(event.failed() ? DefaultAsyncResult.fail(event) : DefaultAsyncResult.succeed(results));
+        });
+    }
+
     /**
      * The opposite of {@code filter}. Removes values that pass an {@code async}
      * truth test.
@@ -417,6 +608,59 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
         });
     }
 
+    /**
+     * Reduces {@code collection} into a single value, mapping each item
+     * through {@code mapper} and merging the values with {@code combiner},
+     * which must be associative. Unlike {@code reduce}, the items are split
+     * into at most {@code limit} chunks reduced concurrently, and their
+     * results are merged in a balanced tree. If {@code mapper} passes an error
+     * to its callback, or {@code combiner} throws, the main {@code handler} is
+     * immediately called with the error.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param collection A collection to iterate over.
+     * @param identity The identity of {@code combiner}, and the result when
+     * {@code collection} is empty.
+     * @param mapper A function mapping each item to a value. Invoked with
+     * (item, callback).
+     * @param combiner An associative function merging two values.
+     * @param limit The maximum number of chunks reduced concurrently.
+     * @param handler A callback which is called with the reduced value, or an
+     * error.
+     */
+    @Override
+    public <I, O> void reduceParallel(final Collection<I> collection, final O identity, final BiHandler<I, Handler<AsyncResult<O>>> mapper, final BinaryOperator<O> combiner, final int limit, final Handler<AsyncResult<O>> handler) {
+        reduceParallel(collection, identity, mapper, combiner, limit, false, handler);
+    }
+
+    /**
+     * The same as {@code reduceParallel}, only when {@code blocking} is set,
+     * the {@code combiner} is run on the worker pool. Use it for CPU heavy
+     * combiners which should not block the context. Each chunk is folded, and
+     * each pair of partial results merged, in a single blocking call.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param collection A collection to iterate over.
+     * @param identity The identity of {@code combiner}, and the result when
+     * {@code collection} is empty.
+     * @param mapper A function mapping each item to a value. Invoked with
+     * (item, callback).
+     * @param combiner An associative function merging two values.
+     * @param limit The maximum number of chunks reduced concurrently.
+     * @param blocking Whether {@code combiner} is run on the worker pool.
+     * @param handler A callback which is called with the reduced value, or an
+     * error.
+     */
+    @Override
+    public <I, O> void reduceParallel(final Collection<I> collection, final O identity, final BiHandler<I, Handler<AsyncResult<O>>> mapper, final BinaryOperator<O> combiner, final int limit, final boolean blocking, final Handler<AsyncResult<O>> handler) {
+        final ReduceProcessor<I, O> processor = new ReduceProcessor<>(context, collection, identity, mapper, combiner, limit, blocking, handler);
+        context.runOnContext(event -> {
+            processor.start();
+        });
+    }
+
     /**
      * Returns the first value in {@code collection} that passes an async truth
      * test. The {@code function} is applied in parallel, meaning the first
@@ -470,6 +714,35 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
         }
     }
 
+    /**
+     * Returns the first value pulled from {@code iterator} that passes an
+     * async truth test, with at most {@code limit} items in progress. Items
+     * are only pulled from the {@code iterator} when a slot is free, so
+     * generated or paged sources never have to be fully materialized. No more
+     * items are pulled once an item passes, or an error occurs.
+     *
+     * @param <T> Define the manipulated type.
+     * @param iterator An iterator to pull items from. It is only accessed from
+     * the context.
+     * @param limit The maximum number of items in progress at a time.
+     * @param function A truth test to apply to each item in {@code iterator}.
+     * The iteratee is passed a {@code callback} which must be called with a
+     * boolean argument once it has completed.
+     * @param handler A callback which is called as soon as any iteratee returns
+     * {@code true}, or after the {@code iterator} is exhausted and all the
+     * {@code function} functions have finished. Result will be the item that
+     * passed the truth test or the value {@code null} if none passed.
+     */
+    @Override
+    public <T> void detect(final Iterator<T> iterator, final int limit, final BiHandler<T, Handler<AsyncResult<Boolean>>> function, final Handler<AsyncResult<T>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        context.runOnContext(event -> {
+            new IteratorProcessor<T, Boolean>(context, iterator, limit, function, (item, result) -> Boolean.TRUE.equals(result), handler).start();
+        });
+    }
+
     /**
      * Returns {@code true} if at least one element in the {@code collection}
      * satisfies an async test. If any iteratee call returns {@code true}, the
@@ -625,6 +898,31 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
         }
     }
 
+    /**
+     * Applies {@code consumer} to each item in {@code iterable}, in parallel,
+     * and passes each resulting collection to {@code emitter} with the index
+     * of its item as soon as it completes, instead of concatenating every
+     * result until the last one. If {@code consumer} passes an error to its
+     * callback, no more values are emitted and the main {@code handler} is
+     * immediately called with the error.
+     *
+     * @param <I> Define input type.
+     * @param <O> Define output type.
+     * @param iterable A collection to iterate over.
+     * @param consumer A function to apply to each item in {@code iterable},
+     * which should use an array as its result. Invoked with (item, callback).
+     * @param emitter A function called with (index, results) for each item as
+     * soon as it completes. The index is the position of the item in the
+     * iteration order of {@code iterable}.
+     * @param handler A callback which is called when all {@code consumer}
+     * functions have finished and their values are emitted, or an error
+     * occurs.
+     */
+    @Override
+    public <I, O> void concat(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<Collection<O>>>> consumer, final BiHandler<Integer, Collection<O>> emitter, final Handler<AsyncResult<Void>> handler) {
+        emit(iterable, consumer, emitter, handler);
+    }
+
     /**
      * Sorts a list by the results of running each {@code collection} value
      * through the internal comparator.
@@ -669,4 +967,55 @@ public final class AsyncCollectionsImpl implements AsyncCollections {
             }
         });
     }
+
+    private <I, O> void emit(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final BiHandler<Integer, O> emitter, final Handler<AsyncResult<Void>> handler) {
+        if (iterable.isEmpty()) {
+            handler.handle(DefaultAsyncResult.succeed());
+        } else {
+            final AtomicBoolean stop = new AtomicBoolean(false);
+            final AtomicInteger counter = new AtomicInteger(iterable.size());
+            int i = 0;
+
+            for (final I item : iterable) {
+                final int pos = i++;
+                context.runOnContext(aVoid -> {
+                    try {
+                        consumer.handle(item, result -> {
+                            if (result.failed() || stop.get()) {
+                                if (!stop.get()) {
+                                    stop.set(true);
+                                    handler.handle(DefaultAsyncResult.fail(result));
+                                }
+                            } else {
+                                emitter.handle(pos, result.result());
+                                if (counter.decrementAndGet() == 0 && !stop.get()) {
+                                    handler.handle(DefaultAsyncResult.succeed());
+                                }
+                            }
+                        });
+                    } catch (Throwable ex) {
+                        if (!stop.get()) {
+                            stop.set(true);
+                            handler.handle(DefaultAsyncResult.fail(ex));
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private <I, O> void series(final Collection<I> iterable, final BiHandler<I, Handler<AsyncResult<O>>> consumer, final BiConsumer<I, O> sink, final Handler<AsyncResult<Void>> handler) {
+        // Items are run one at a time in index order, so the iterator follows the index
+        final Iterator<I> iterator = iterable.iterator();
+        final AtomicReference<I> current = new AtomicReference<>();
+        final IndexProcessor<O> processor = new IndexProcessor<>(context, iterable.size(), 1, (index, callback) -> {
+            current.set(iterator.next());
+            consumer.handle(current.get(), callback);
+        }, (result, index) -> {
+            sink.accept(current.get(), result);
+        }, handler);
+        context.runOnContext(event -> {
+            processor.start();
+        });
+    }
 }
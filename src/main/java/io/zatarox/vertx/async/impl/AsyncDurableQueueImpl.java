@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.AsyncDurableQueue;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A queue keeping its tasks in a {@link MappedJournal} until they complete, so
+ * pending tasks are run again when the queue is created after a restart.
+ * <p>
+ * Appended tasks are written to the storage device in groups: the first task
+ * appended after a write schedules the next one on a worker thread, and all
+ * the tasks appended meanwhile are written with it.
+ * <p>
+ * When the journal is full, it is compacted on a worker thread. Tasks added
+ * and acknowledgements made meanwhile wait in memory, so the caller never
+ * blocks on the file.
+ *
+ * @param <T> Handled task type
+ */
+public final class AsyncDurableQueueImpl<T> extends AbstractQueueImpl<T> implements AsyncDurableQueue<T> {
+
+    private final Deque<QueuedTask<T>> tasks = new ConcurrentLinkedDeque();
+    private final MappedJournal<T> journal;
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    // Guarded by parked
+    private final Deque<Parked<T>> parked = new ArrayDeque<>();
+    private final List<Long> deferred = new ArrayList<>();
+    private boolean compacting = false;
+    private boolean closed = false;
+
+    /**
+     * @param context Context running the queue
+     * @param worker The worker used to process the queue
+     * @param concurrency Concurrency limit
+     * @param journal Journal of tasks, its pending tasks are queued again.
+     * @param recovered Handler of the pending tasks read from the journal, or
+     * null.
+     */
+    public AsyncDurableQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency, final MappedJournal<T> journal, final Handler<AsyncResult<Void>> recovered) {
+        super(context, worker, concurrency);
+        this.journal = journal;
+        journal.getPending().entrySet().stream().forEach(entry -> {
+            add(new QueuedTask<>(entry.getValue(), new Acknowledging(entry.getKey(), recovered)), false);
+        });
+    }
+
+    @Override
+    public boolean add(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
+        long id = -1;
+        AsyncResult<Void> failure = null;
+        synchronized (parked) {
+            if (closed) {
+                failure = DefaultAsyncResult.fail(new IllegalStateException("Queue closed"));
+            } else if (compacting) {
+                parked.offer(new Parked<>(task, handler, top));
+                return true;
+            } else {
+                try {
+                    id = journal.append(task);
+                } catch (RuntimeException ex) {
+                    failure = DefaultAsyncResult.fail(ex);
+                }
+                if (failure == null && id < 0) {
+                    parked.offer(new Parked<>(task, handler, top));
+                    compact();
+                    return true;
+                }
+            }
+        }
+        if (failure != null) {
+            if (handler != null) {
+                handler.handle(failure);
+            }
+            return false;
+        }
+        flush();
+        return super.add(task, new Acknowledging(id, handler), top);
+    }
+
+    private void flush() {
+        if (flushing.compareAndSet(false, true)) {
+            context().owner().executeBlocking(future -> {
+                // Tasks appended from now on need another write
+                flushing.set(false);
+                journal.force();
+                future.complete();
+            }, false, null);
+        }
+    }
+
+    // Called holding the lock of parked
+    private void compact() {
+        compacting = true;
+        context().<Void>executeBlocking(future -> {
+            try {
+                journal.compact();
+                future.complete();
+            } catch (IOException ex) {
+                future.fail(ex);
+            }
+        }, true, this::resume);
+    }
+
+    private void resume(final AsyncResult<Void> result) {
+        final List<Parked<T>> waiting;
+        synchronized (parked) {
+            compacting = false;
+            if (!closed) {
+                deferred.stream().forEach(journal::ack);
+            }
+            deferred.clear();
+            waiting = new ArrayList<>(parked);
+            parked.clear();
+        }
+        waiting.stream().forEach(item -> {
+            if (result.succeeded()) {
+                add(item.task, item.handler, item.top);
+            } else if (item.handler != null) {
+                item.handler.handle(DefaultAsyncResult.fail(result));
+            }
+        });
+    }
+
+    @Override
+    public void sync(final Handler<AsyncResult<Void>> handler) {
+        context().owner().executeBlocking(future -> {
+            journal.force();
+            future.complete();
+        }, false, handler);
+    }
+
+    @Override
+    public void close(final Handler<AsyncResult<Void>> handler) {
+        synchronized (parked) {
+            closed = true;
+        }
+        context().<Void>executeBlocking(future -> {
+            try {
+                journal.close();
+                future.complete();
+            } catch (IOException ex) {
+                future.fail(ex);
+            }
+        }, true, handler);
+    }
+
+    /**
+     * @return The journal of tasks.
+     */
+    public MappedJournal<T> getJournal() {
+        return journal;
+    }
+
+    @Override
+    protected boolean offer(final QueuedTask<T> item, final boolean top) {
+        final boolean result;
+        if (!top) {
+            result = tasks.offer(item);
+        } else {
+            result = tasks.offerFirst(item);
+        }
+        return result;
+    }
+
+    @Override
+    protected QueuedTask<T> poll() {
+        return tasks.poll();
+    }
+
+    @Override
+    protected boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        int count = 0;
+        QueuedTask<T> item;
+        while ((item = tasks.poll()) != null) {
+            ((Acknowledging) item.getValue()).acknowledge();
+            count++;
+        }
+        discarded(count);
+    }
+
+    /**
+     * A task added while the journal is compacted.
+     */
+    private static final class Parked<T> {
+
+        private final T task;
+        private final Handler<AsyncResult<Void>> handler;
+        private final boolean top;
+
+        private Parked(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
+            this.task = task;
+            this.handler = handler;
+            this.top = top;
+        }
+    }
+
+    /**
+     * Removes a task from the journal once it completes, whatever its result.
+     * Once the queue is closed, the task is left in the journal.
+     */
+    private final class Acknowledging implements Handler<AsyncResult<Void>> {
+
+        private final long id;
+        private final Handler<AsyncResult<Void>> handler;
+
+        private Acknowledging(final long id, final Handler<AsyncResult<Void>> handler) {
+            this.id = id;
+            this.handler = handler;
+        }
+
+        private void acknowledge() {
+            synchronized (parked) {
+                if (compacting) {
+                    deferred.add(id);
+                } else if (!closed) {
+                    journal.ack(id);
+                    if (journal.isFull()) {
+                        compact();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void handle(final AsyncResult<Void> event) {
+            acknowledge();
+            if (handler != null) {
+                handler.handle(event);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.zatarox.vertx.async.api.BiHandler;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Consumer side of a queue distributed over the event bus, see
+ * {@link AsyncEventBusQueueImpl}. Tasks are received on a private address.
+ * The producers which published a demand are offered a credit for every free
+ * slot, one offer at a time and in turn. A producer is forgotten once it
+ * declines a credit, until its next demand. Probes sent by producers holding
+ * tasks on this consumer are answered at once.
+ *
+ * @param <T> Handled task type
+ */
+public final class AsyncEventBusConsumerImpl<T> {
+
+    private final Context context;
+    private final String address;
+    private final MessageConsumer<T> consumer;
+    private final MessageConsumer<String> demand;
+    // Only accessed from the context
+    private final Set<String> producers = new LinkedHashSet<>();
+    private int free;
+    private boolean offering = false;
+
+    /**
+     * @param context Context running the worker
+     * @param address Address of the queue, shared with producers.
+     * @param worker The worker used to process tasks
+     * @param concurrency Maximum number of tasks processed at once.
+     */
+    public AsyncEventBusConsumerImpl(final Context context, final String address, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.context = context;
+        this.address = address;
+        this.free = concurrency;
+        this.consumer = context.owner().eventBus().consumer(address + "." + UUID.randomUUID());
+        this.demand = context.owner().eventBus().consumer(address + AsyncEventBusQueueImpl.DEMAND);
+        final Handler<Void> register = event -> {
+            consumer.handler(message -> {
+                if (message.headers().contains(AsyncEventBusQueueImpl.PROBE)) {
+                    // A producer checks this consumer still listens
+                    message.reply(null);
+                    return;
+                }
+                worker.handle(message.body(), result -> {
+                    if (result.succeeded()) {
+                        message.reply(null);
+                    } else {
+                        message.fail(0, String.valueOf(result.cause().getMessage()));
+                    }
+                    free++;
+                    offer();
+                });
+            });
+            demand.handler(message -> {
+                if (consumer.isRegistered()) {
+                    producers.add(message.body());
+                    offer();
+                } else {
+                    // The consumer was unregistered directly
+                    demand.unregister();
+                }
+            });
+        };
+        if (Vertx.currentContext() == context) {
+            register.handle(null);
+        } else {
+            context.runOnContext(register);
+        }
+    }
+
+    private void offer() {
+        if (free > 0 && !offering && !producers.isEmpty() && consumer.isRegistered()) {
+            final String producer = producers.iterator().next();
+            final int offered = free;
+            final JsonObject credit = new JsonObject()
+                    .put(AsyncEventBusQueueImpl.ADDRESS, consumer.address())
+                    .put(AsyncEventBusQueueImpl.CREDITS, offered);
+            offering = true;
+            context.owner().eventBus().<JsonObject>send(producer, credit, reply -> {
+                offering = false;
+                final int accepted = reply.succeeded() ? reply.result().body().getInteger(AsyncEventBusQueueImpl.CREDITS, 0) : 0;
+                free -= accepted;
+                producers.remove(producer);
+                if (accepted == offered) {
+                    // It may want more, after the others
+                    producers.add(producer);
+                }
+                offer();
+            });
+        }
+    }
+
+    /**
+     * @return The consumer receiving tasks.
+     */
+    public MessageConsumer<T> getConsumer() {
+        return consumer;
+    }
+
+    /**
+     * Stop receiving tasks.
+     *
+     * @param handler Called once the consumer is unregistered.
+     */
+    public void close(final Handler<AsyncResult<Void>> handler) {
+        demand.unregister();
+        consumer.unregister(handler);
+    }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Producer side of a queue distributed over the event bus. Consumers, see
+ * {@link AsyncEventBusConsumerImpl}, pull tasks: a producer with waiting tasks
+ * publishes a demand on the address of the queue, and consumers with free
+ * slots offer credits to the private address of the producer. The producer
+ * only accepts the credits it can use at once, sends a task to the consumer
+ * for each of them, and replies with the number accepted. Producers never
+ * hold credits, so an idle producer cannot keep them from a busy one, and
+ * nothing is left behind by a consumer that has gone away. The demand is
+ * published again while tasks wait and no credit comes.
+ * <p>
+ * Consumers offer a credit per free slot, so each of them honours its own
+ * concurrency limit, and adding consumers on any node scales the queue. The
+ * concurrency limit of the producer bounds the tasks it has in flight over
+ * all consumers. A task sent to a consumer that has gone away is queued again.
+ * <p>
+ * Tasks are completed by the reply of their consumer, which comes once the
+ * task completes, so they have no send timeout unless the options set one.
+ * Instead, every consumer holding tasks is probed each {@code PROBE_DELAY}:
+ * once it has no handler, or does not answer within {@code PROBE_TIMEOUT}, as
+ * when its node dies, its tasks fail with an {@link IllegalStateException}.
+ * A task failed this way, or with a {@code TIMEOUT}, may still be running, or
+ * have run, on its consumer, so it is not queued again.
+ *
+ * @param <T> Handled task type
+ */
+public final class AsyncEventBusQueueImpl<T> extends AbstractWorkerImpl<T> {
+
+    static final String ADDRESS = "address";
+    static final String CREDITS = "credits";
+    static final String DEMAND = ".demand";
+    static final String PROBE = "probe";
+    static final long RETRY_DELAY = 100;
+    static final long PROBE_DELAY = 1000;
+    static final long PROBE_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    // The event bus needs a timeout, consumers gone are found by probes
+    static final long SEND_TIMEOUT = TimeUnit.DAYS.toMillis(365);
+
+    private final Deque<QueuedTask<T>> tasks = new ConcurrentLinkedDeque();
+    private final String address;
+    private final DeliveryOptions options;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final MessageConsumer<JsonObject> consumer;
+    // Timer publishing the demand again, only accessed from the context
+    private long demand = -1;
+    // Start time of the tasks in flight by consumer, only accessed from the context
+    private final Map<String, Map<QueuedTask<T>, Long>> inflight = new HashMap<>();
+    // Timer probing consumers, only accessed from the context
+    private long probe = -1;
+
+    /**
+     * @param context Context running the queue
+     * @param address Address of the queue, shared with consumers.
+     * @param options Options of the messages carrying tasks, to set their
+     * codec or timeout for instance. Without options, tasks do not time out,
+     * they only fail when their consumer is gone.
+     */
+    public AsyncEventBusQueueImpl(final Context context, final String address, final DeliveryOptions options) {
+        super(context, Integer.MAX_VALUE);
+        this.address = address;
+        this.options = options == null ? new DeliveryOptions().setSendTimeout(SEND_TIMEOUT) : options;
+        this.consumer = context.owner().eventBus().consumer(address + "." + UUID.randomUUID());
+        if (Vertx.currentContext() == context) {
+            consumer.handler(this::credit);
+        } else {
+            context.runOnContext(event -> {
+                consumer.handler(this::credit);
+            });
+        }
+    }
+
+    private void credit(final Message<JsonObject> message) {
+        final String target = message.body().getString(ADDRESS);
+        final int offered = message.body().getInteger(CREDITS, 1);
+        int accepted = 0;
+        if (demand >= 0) {
+            context().owner().cancelTimer(demand);
+            demand = -1;
+        }
+        while (accepted < offered && !paused.get() && current.get() < concurrency.get()) {
+            final QueuedTask<T> task = tasks.poll();
+            if (task == null) {
+                break;
+            }
+            send(target, task);
+            accepted++;
+        }
+        message.reply(new JsonObject().put(CREDITS, accepted));
+        drain();
+    }
+
+    @Override
+    public boolean add(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
+        final QueuedTask<T> item = new QueuedTask<>(task, handler);
+        final boolean result = top ? tasks.offerFirst(item) : tasks.offer(item);
+        if (result) {
+            enqueued(1);
+            if (scheduled.compareAndSet(false, true)) {
+                context().runOnContext(event -> {
+                    scheduled.set(false);
+                    drain();
+                });
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void handle(Void event) {
+        if (Vertx.currentContext() == context()) {
+            drain();
+        } else {
+            context().runOnContext(this);
+        }
+    }
+
+    private void drain() {
+        if (tasks.isEmpty()) {
+            fireEmptyPool();
+        } else if (demand < 0 && consumer.isRegistered() && !paused.get() && current.get() < concurrency.get()) {
+            context().owner().eventBus().publish(address + DEMAND, consumer.address());
+            demand = context().owner().setTimer(RETRY_DELAY, event -> {
+                demand = -1;
+                drain();
+            });
+        }
+    }
+
+    private void send(final String target, final QueuedTask<T> task) {
+        final long start = System.nanoTime();
+        current.incrementAndGet();
+        started(task, start);
+        inflight.computeIfAbsent(target, k -> new IdentityHashMap<>()).put(task, start);
+        if (probe < 0) {
+            probe = context().owner().setTimer(PROBE_DELAY, event -> probe());
+        }
+        context().owner().eventBus().send(target, task.getKey(), options, reply -> {
+            if (!release(target, task)) {
+                // Already failed, its consumer was found gone
+                return;
+            }
+            current.decrementAndGet();
+            if (reply.failed() && reply.cause() instanceof ReplyException
+                    && ((ReplyException) reply.cause()).failureType() == ReplyFailure.NO_HANDLERS) {
+                // The consumer is gone, another one runs the task
+                tasks.offerFirst(task);
+                moved(1);
+            } else {
+                completed(start, reply.failed());
+                task.getValue().handle(reply.failed() ? DefaultAsyncResult.fail(reply.cause()) : DefaultAsyncResult.succeed());
+            }
+            drain();
+        });
+    }
+
+    /**
+     * @param target Address of the consumer.
+     * @param task A task sent to {@code target}.
+     * @return True if the task was still in flight.
+     */
+    private boolean release(final String target, final QueuedTask<T> task) {
+        final Map<QueuedTask<T>, Long> sent = inflight.get(target);
+        final boolean result = sent != null && sent.remove(task) != null;
+        if (sent != null && sent.isEmpty()) {
+            inflight.remove(target);
+        }
+        return result;
+    }
+
+    /**
+     * Check every consumer holding tasks still listens.
+     */
+    private void probe() {
+        probe = -1;
+        final DeliveryOptions ping = new DeliveryOptions().addHeader(PROBE, "").setSendTimeout(PROBE_TIMEOUT);
+        new ArrayList<>(inflight.keySet()).stream().forEach(target -> {
+            context().owner().eventBus().send(target, null, ping, reply -> {
+                if (reply.failed() && reply.cause() instanceof ReplyException
+                        && ((ReplyException) reply.cause()).failureType() != ReplyFailure.RECIPIENT_FAILURE) {
+                    lost(target);
+                }
+            });
+        });
+        if (!inflight.isEmpty()) {
+            probe = context().owner().setTimer(PROBE_DELAY, event -> probe());
+        }
+    }
+
+    /**
+     * Fail the tasks in flight on a consumer gone.
+     *
+     * @param target Address of the consumer.
+     */
+    private void lost(final String target) {
+        final Map<QueuedTask<T>, Long> sent = inflight.remove(target);
+        if (sent != null) {
+            sent.forEach((task, start) -> {
+                current.decrementAndGet();
+                completed(start, true);
+                task.getValue().handle(DefaultAsyncResult.fail(new IllegalStateException("Consumer gone")));
+            });
+            drain();
+        }
+    }
+
+    @Override
+    public boolean isIdle() {
+        return current.get() == 0 && tasks.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        int count = 0;
+        while (tasks.poll() != null) {
+            count++;
+        }
+        discarded(count);
+    }
+
+    /**
+     * Stop receiving credits.
+     *
+     * @param handler Called once the queue is unregistered.
+     */
+    public void close(final Handler<AsyncResult<Void>> handler) {
+        consumer.unregister(handler);
+    }
+
+}
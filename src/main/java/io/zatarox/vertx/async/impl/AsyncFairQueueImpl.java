@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.BiHandler;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A queue sharing its workers fairly between tenants. Each tenant has its own
+ * FIFO sub-queue, and tenants with waiting tasks are served in weighted
+ * round-robin: a tenant runs up to {@code weight} tasks in a row, then lets
+ * the next one run. A task waits at most for the sum of the other active
+ * tenants' weights, whatever their backlog is. Sub-queues are dropped as soon
+ * as they are empty.
+ *
+ * @param <T> Handled task type
+ * @param <K> Tenant type
+ */
+public final class AsyncFairQueueImpl<T, K> extends AbstractQueueImpl<T> {
+
+    private final Function<T, K> tenant;
+    private final ToIntFunction<K> weight;
+    private final Map<K, Deque<QueuedTask<T>>> queues = new HashMap<>();
+    // Tenants waiting for their turn, the served one is kept apart
+    private final Deque<K> ring = new ArrayDeque<>();
+    private K served = null;
+    private int credit = 0;
+    private int size = 0;
+
+    public AsyncFairQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> tenant, final int concurrency) {
+        this(context, worker, tenant, key -> 1, concurrency);
+    }
+
+    public AsyncFairQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> tenant, final ToIntFunction<K> weight, final int concurrency) {
+        super(context, worker, concurrency);
+        this.tenant = tenant;
+        this.weight = weight;
+    }
+
+    @Override
+    protected synchronized boolean offer(final QueuedTask<T> item, final boolean top) {
+        final K key = tenant.apply(item.getKey());
+        Deque<QueuedTask<T>> queue = queues.get(key);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(key, queue);
+            ring.offerLast(key);
+        }
+        if (!top) {
+            queue.offerLast(item);
+        } else {
+            queue.offerFirst(item);
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    protected synchronized QueuedTask<T> poll() {
+        QueuedTask<T> result = null;
+        if (size > 0) {
+            if (served == null) {
+                served = ring.pollFirst();
+                credit = Math.max(1, weight.applyAsInt(served));
+            }
+            final Deque<QueuedTask<T>> queue = queues.get(served);
+            result = queue.pollFirst();
+            size--;
+            if (queue.isEmpty()) {
+                queues.remove(served);
+                served = null;
+            } else if (--credit < 1) {
+                ring.offerLast(served);
+                served = null;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Number of tenants with waiting tasks.
+     */
+    public synchronized int getTenants() {
+        return queues.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        queues.clear();
+        ring.clear();
+        discarded(size);
+        served = null;
+        size = 0;
+    }
+
+}
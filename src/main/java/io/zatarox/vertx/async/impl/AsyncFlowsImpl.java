@@ -20,18 +20,31 @@ import io.zatarox.vertx.async.api.AsyncWorker;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.zatarox.vertx.async.api.AsyncCargo;
+import io.zatarox.vertx.async.api.AsyncDurableQueue;
 import io.zatarox.vertx.async.api.AsyncFlows;
 import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.api.KeyedSerialExecutor;
+import io.zatarox.vertx.async.api.Pair;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public final class AsyncFlowsImpl implements AsyncFlows {
 
+    private static final int JOURNAL_CAPACITY = 1 << 20;
+
     private final Context context;
 
     public AsyncFlowsImpl(final Context context) {
@@ -166,6 +179,13 @@ public final class AsyncFlowsImpl implements AsyncFlows {
         }
     }
 
+    @Override
+    public <T> void parallelLimit(final List<Handler<Handler<AsyncResult<T>>>> tasks, final int limit, final Handler<AsyncResult<List<T>>> handler) {
+        timesLimit(tasks.size(), limit, (index, callback) -> {
+            tasks.get(index).handle(callback);
+        }, handler);
+    }
+
     @Override
     public void whilst(final BooleanSupplier tester, final Handler<Handler<AsyncResult<Void>>> consumer, final Handler<AsyncResult<Void>> handler) {
         context.runOnContext(new Handler<Void>() {
@@ -334,6 +354,24 @@ public final class AsyncFlowsImpl implements AsyncFlows {
         }
     }
 
+    @Override
+    public <T> void timesLimit(final int counter, final int limit, final BiHandler<Integer, Handler<AsyncResult<T>>> consumer, final Handler<AsyncResult<List<T>>> handler) {
+        final List<T> results = new ArrayList<>(Collections.nCopies(Math.max(0, counter), null));
+        final IndexProcessor<T> processor = new IndexProcessor<>(context, counter, limit, consumer, (value, index) -> {
+            results.set(index, value);
+        }, result -> {
+            handler.handle(result.failed() ? DefaultAsyncResult.fail(result) : DefaultAsyncResult.succeed(results));
+        });
+        context.runOnContext(event -> {
+            processor.start();
+        });
+    }
+
+    @Override
+    public <T> void timesSeries(final int counter, final BiHandler<Integer, Handler<AsyncResult<T>>> consumer, final Handler<AsyncResult<List<T>>> handler) {
+        timesLimit(counter, 1, consumer, handler);
+    }
+
     @Override
     public <T> void race(final Collection<Handler<Handler<AsyncResult<T>>>> tasks, final Handler<AsyncResult<T>> handler) {
         if (tasks.isEmpty()) {
@@ -362,12 +400,106 @@ public final class AsyncFlowsImpl implements AsyncFlows {
 
     @Override
     public <T> AsyncWorker createQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker) {
-        return new AsyncQueueImpl(worker);
+        return new AsyncQueueImpl(context, worker);
     }
 
     @Override
-    public <T> AsyncWorker createCargo(final BiHandler<T, Handler<AsyncResult<Void>>> worker) {
-        return new AsyncCargoImpl(worker);
+    public <T> AsyncWorker createAdaptiveQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int minimum, final int maximum) {
+        final AsyncQueueImpl<T> queue = new AsyncQueueImpl(context, worker, minimum);
+        queue.setAdaptiveConcurrency(minimum, maximum);
+        return queue;
+    }
+
+    @Override
+    public <T> AsyncWorker createPriorityQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Comparator<T> comparator, final int concurrency) {
+        return new AsyncPriorityQueueImpl(context, worker, comparator, concurrency);
+    }
+
+    @Override
+    public <T> AsyncWorker createPriorityQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final ToIntFunction<T> priority, final int concurrency) {
+        return new AsyncPriorityQueueImpl(context, worker, priority, concurrency);
+    }
+
+    @Override
+    public <T, K> AsyncWorker createFairQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> tenant, final int concurrency) {
+        return new AsyncFairQueueImpl(context, worker, tenant, concurrency);
+    }
+
+    @Override
+    public <T, K> AsyncWorker createFairQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> tenant, final ToIntFunction<K> weight, final int concurrency) {
+        return new AsyncFairQueueImpl(context, worker, tenant, weight, concurrency);
+    }
+
+    @Override
+    public <T> AsyncWorker createShardedQueue(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency) {
+        return new AsyncShardedQueueImpl(contexts, worker, null, concurrency);
+    }
+
+    @Override
+    public <T, K> AsyncWorker createShardedQueue(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> key, final int concurrency) {
+        return new AsyncShardedQueueImpl(contexts, worker, key, concurrency);
+    }
+
+    @Override
+    public <T, K> AsyncWorker createShardedQueue(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> key, final int concurrency, final boolean stealing) {
+        final AsyncShardedQueueImpl<T> queue = new AsyncShardedQueueImpl(contexts, worker, key, concurrency);
+        queue.setStealing(stealing);
+        return queue;
+    }
+
+    @Override
+    public <T> void createDurableQueue(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final String path, final MessageCodec<T, T> codec, final int concurrency, final Handler<AsyncResult<Void>> recovered, final Handler<AsyncResult<AsyncDurableQueue<T>>> handler) {
+        context.<MappedJournal<T>>executeBlocking(future -> {
+            try {
+                future.complete(new MappedJournal<>(Paths.get(path), JOURNAL_CAPACITY, codec));
+            } catch (IOException ex) {
+                future.fail(ex);
+            }
+        }, false, event -> {
+            if (event.succeeded()) {
+                handler.handle(DefaultAsyncResult.succeed(new AsyncDurableQueueImpl<>(context, worker, concurrency, event.result(), recovered)));
+            } else {
+                handler.handle(DefaultAsyncResult.fail(event));
+            }
+        });
+    }
+
+    @Override
+    public <T> AsyncWorker createEventBusQueue(final String address, final DeliveryOptions options) {
+        return new AsyncEventBusQueueImpl(context, address, options);
+    }
+
+    @Override
+    public <T> MessageConsumer<T> createEventBusConsumer(final String address, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency) {
+        return new AsyncEventBusConsumerImpl<>(context, address, worker, concurrency).getConsumer();
+    }
+
+    @Override
+    public <K> KeyedSerialExecutor<K> createKeyedSerialExecutor() {
+        return new KeyedSerialExecutorImpl<>(context);
+    }
+
+    @Override
+    public <T> AsyncCargo createCargo(final BiHandler<T, Handler<AsyncResult<Void>>> worker) {
+        return new AsyncCargoImpl(context, worker, 1, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <T> AsyncCargo<T> createCargo(final BiHandler<Collection<Pair<T, Handler<AsyncResult<Void>>>>, Handler<AsyncResult<Void>>> worker, final int concurrency, final int payload) {
+        return new AsyncCargoImpl<>(context, worker, concurrency, payload);
+    }
+
+    @Override
+    public <T> void auto(final Map<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> tasks, final Handler<AsyncResult<Map<String, T>>> handler) {
+        auto(tasks, Integer.MAX_VALUE, handler);
+    }
+
+    @Override
+    public <T> void auto(final Map<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> tasks, final int limit, final Handler<AsyncResult<Map<String, T>>> handler) {
+        final AutoProcessor<T> processor = new AutoProcessor<>(context, tasks, limit, handler);
+        context.runOnContext(event -> {
+            processor.start();
+        });
     }
 
     @Override
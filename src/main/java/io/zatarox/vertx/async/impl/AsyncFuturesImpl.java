@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.AsyncCollections;
+import io.zatarox.vertx.async.api.AsyncFlows;
+import io.zatarox.vertx.async.api.AsyncFutures;
+import io.zatarox.vertx.async.api.AsyncUtils;
+import io.zatarox.vertx.async.api.BiHandler;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Delegates to the callback implementations. Futures returned by user
+ * functions are {@link AsyncResult}s, so they are handed to the callbacks as
+ * is, and the engines complete the returned future through its
+ * {@link Future#completer()}: results are never wrapped again.
+ */
+public final class AsyncFuturesImpl implements AsyncFutures {
+
+    private final AsyncCollections collections;
+    private final AsyncFlows flows;
+    private final AsyncUtils utils;
+
+    public AsyncFuturesImpl(final Context context) {
+        this.collections = new AsyncCollectionsImpl(context);
+        this.flows = new AsyncFlowsImpl(context);
+        this.utils = new AsyncUtilsImpl(context);
+    }
+
+    private static <I, O> BiHandler<I, Handler<AsyncResult<O>>> function(final Function<I, Future<O>> function) {
+        return (item, handler) -> function.apply(item).setHandler(handler);
+    }
+
+    private static <T> Handler<Handler<AsyncResult<T>>> task(final Supplier<Future<T>> task) {
+        return handler -> task.get().setHandler(handler);
+    }
+
+    private static <T> List<Handler<Handler<AsyncResult<T>>>> tasks(final Collection<Supplier<Future<T>>> tasks) {
+        return tasks.stream().map(AsyncFuturesImpl::task).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public <I, O> Future<Collection<O>> concat(final Collection<I> iterable, final Function<I, Future<Collection<O>>> function) {
+        final Future<Collection<O>> future = Future.future();
+        collections.concat(iterable, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> detect(final Collection<T> collection, final Function<T, Future<Boolean>> function) {
+        final Future<T> future = Future.future();
+        collections.detect(collection, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<Void> each(final Collection<T> iterable, final Function<T, Future<Void>> function) {
+        final Future<Void> future = Future.future();
+        collections.each(iterable, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<Boolean> every(final Collection<T> collection, final Function<T, Future<Boolean>> function) {
+        final Future<Boolean> future = Future.future();
+        collections.every(collection, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<Collection<T>> filter(final Collection<T> iterable, final Function<T, Future<Boolean>> function) {
+        final Future<Collection<T>> future = Future.future();
+        collections.filter(iterable, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <I, O> Future<Collection<O>> map(final List<I> iterable, final Function<I, Future<O>> function) {
+        final Future<Collection<O>> future = Future.future();
+        collections.map(iterable, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <I, O> Future<O> reduce(final Collection<I> collection, final O memo, final BiFunction<I, O, Future<O>> function) {
+        final Future<O> future = Future.future();
+        collections.reduce(collection, memo, (pair, handler) -> {
+            function.apply(pair.getKey(), pair.getValue()).setHandler(handler);
+        }, future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<Collection<T>> reject(final Collection<T> iterable, final Function<T, Future<Boolean>> function) {
+        final Future<Collection<T>> future = Future.future();
+        collections.reject(iterable, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<Boolean> some(final Collection<T> collection, final Function<T, Future<Boolean>> function) {
+        final Future<Boolean> future = Future.future();
+        collections.some(collection, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<Collection<T>> sort(final Collection<T> iterable, final Comparator<T> comparator) {
+        final Future<Collection<T>> future = Future.future();
+        collections.sort(iterable, comparator, future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<List<T>> parallel(final List<Supplier<Future<T>>> tasks) {
+        final Future<List<T>> future = Future.future();
+        flows.parallel(tasks(tasks), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> race(final Collection<Supplier<Future<T>>> tasks) {
+        final Future<T> future = Future.future();
+        flows.race(tasks(tasks), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> retry(final AbstractRetryOptions options, final Supplier<Future<T>> task) {
+        final Future<T> future = Future.future();
+        flows.retry(options, task(task), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<List<T>> series(final Collection<Supplier<Future<T>>> tasks) {
+        final Future<List<T>> future = Future.future();
+        flows.series(tasks(tasks), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<List<T>> times(final int counter, final Function<Integer, Future<T>> function) {
+        final Future<List<T>> future = Future.future();
+        flows.times(counter, function(function), future.completer());
+        return future;
+    }
+
+    @Override
+    public Future<Void> until(final BooleanSupplier tester, final Supplier<Future<Void>> task) {
+        final Future<Void> future = Future.future();
+        flows.until(tester, task(task), future.completer());
+        return future;
+    }
+
+    @Override
+    public Future<Void> whilst(final BooleanSupplier tester, final Supplier<Future<Void>> task) {
+        final Future<Void> future = Future.future();
+        flows.whilst(tester, task(task), future.completer());
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> timeout(final Supplier<Future<T>> task, final TimeUnit unit, final long delay) {
+        final Future<T> future = Future.future();
+        utils.timeout(task(task), unit, delay, future.completer());
+        return future;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.BiHandler;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A queue running tasks by ascending priority. Waiting tasks are stored in
+ * FIFO buckets, one per distinct priority, so retrieving the next task costs
+ * O(log p) where p is the number of priorities currently waiting.
+ *
+ * @param <T> Handled task type
+ */
+public final class AsyncPriorityQueueImpl<T> extends AbstractQueueImpl<T> {
+
+    private final Function<T, Object> rank;
+    private final TreeMap<Object, Deque<QueuedTask<T>>> buckets;
+    private int size = 0;
+
+    /**
+     * @param context Context running the queue
+     * @param worker The worker used to process the queue
+     * @param comparator Order of tasks, the lowest ones run first. Tasks
+     * comparing equal run in insertion order.
+     * @param concurrency Concurrency limit
+     */
+    public AsyncPriorityQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Comparator<T> comparator, final int concurrency) {
+        this(context, worker, Function.identity(), comparator, concurrency);
+    }
+
+    /**
+     * @param context Context running the queue
+     * @param worker The worker used to process the queue
+     * @param priority Priority of a task, the lowest values run first. Tasks
+     * of the same priority run in insertion order.
+     * @param concurrency Concurrency limit
+     */
+    public AsyncPriorityQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final ToIntFunction<T> priority, final int concurrency) {
+        this(context, worker, priority::applyAsInt, Comparator.<Integer>naturalOrder(), concurrency);
+    }
+
+    private <K> AsyncPriorityQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, K> rank, final Comparator<K> comparator, final int concurrency) {
+        super(context, worker, concurrency);
+        this.rank = (Function<T, Object>) rank;
+        this.buckets = new TreeMap<>((Comparator<Object>) comparator);
+    }
+
+    @Override
+    protected synchronized boolean offer(final QueuedTask<T> item, final boolean top) {
+        final Deque<QueuedTask<T>> bucket = buckets.computeIfAbsent(rank.apply(item.getKey()), key -> new ArrayDeque<>());
+        if (!top) {
+            bucket.offerLast(item);
+        } else {
+            bucket.offerFirst(item);
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    protected synchronized QueuedTask<T> poll() {
+        final Map.Entry<Object, Deque<QueuedTask<T>>> first = buckets.firstEntry();
+        QueuedTask<T> result = null;
+        if (first != null) {
+            result = first.getValue().pollFirst();
+            if (first.getValue().isEmpty()) {
+                buckets.remove(first.getKey());
+            }
+            size--;
+        }
+        return result;
+    }
+
+    @Override
+    protected synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        buckets.clear();
+        discarded(size);
+        size = 0;
+    }
+
+}
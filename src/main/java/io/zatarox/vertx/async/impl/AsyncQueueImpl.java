@@ -16,69 +16,81 @@
 package io.zatarox.vertx.async.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
-import io.vertx.core.Vertx;
 import io.zatarox.vertx.async.api.BiHandler;
-import io.zatarox.vertx.async.api.Pair;
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
 
-public final class AsyncQueueImpl<T> extends AbstractWorkerImpl<T> {
+public final class AsyncQueueImpl<T> extends AbstractQueueImpl<T> {
 
-    private final BiHandler<T, Handler<AsyncResult<Void>>> worker;
-    private final Deque<Pair<T, Handler<AsyncResult<Void>>>> tasks = new ConcurrentLinkedDeque();
+    private final Deque<QueuedTask<T>> tasks = new ConcurrentLinkedDeque();
 
     public AsyncQueueImpl(final BiHandler<T, Handler<AsyncResult<Void>>> worker) {
-        this(worker, 5);
+        this(null, worker);
     }
 
     public AsyncQueueImpl(final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency) {
-        super(concurrency);
-        this.worker = worker;
+        this(null, worker, concurrency);
     }
 
-    public boolean add(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
-        try {
-            final Pair<T, Handler<AsyncResult<Void>>> item = new PairImpl(task, handler);
-            final boolean result;
-            if (!top) {
-                result = tasks.offer(item);
-            } else {
-                result = tasks.offerFirst(item);
-            }
-            return result;
-        } finally {
-            if (current.get() < 1 && !paused.get()) {
-                Vertx.currentContext().runOnContext(this);
-            }
+    public AsyncQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker) {
+        this(context, worker, 5);
+    }
+
+    public AsyncQueueImpl(final Context context, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final int concurrency) {
+        super(context, worker, concurrency);
+    }
+
+    @Override
+    protected boolean offer(final QueuedTask<T> item, final boolean top) {
+        final boolean result;
+        if (!top) {
+            result = tasks.offer(item);
+        } else {
+            result = tasks.offerFirst(item);
         }
+        return result;
     }
 
     @Override
-    public boolean isIdle() {
-        return current.get() == 0 && tasks.isEmpty();
+    protected QueuedTask<T> poll() {
+        return tasks.poll();
     }
 
     @Override
-    public void clear() {
-        tasks.clear();
+    protected boolean isEmpty() {
+        return tasks.isEmpty();
     }
 
-    public void handle(Void event) {
-        if (tasks.isEmpty()) {
-            fireEmptyPool();
-        } else if (current.get() < concurrency.get() && !paused.get()) {
-            final Pair<T, Handler<AsyncResult<Void>>> task = tasks.poll();
-            current.incrementAndGet();
-            Vertx.currentContext().runOnContext(event1 -> {
-                worker.handle(task.getKey(), event2 -> {
-                    task.getValue().handle(event2);
-                    current.decrementAndGet();
-                    this.handle(event);
-                });
-            });
-            this.handle(event);
+    /**
+     * Remove waiting tasks from the end of the queue, up to the first pinned
+     * one. Safe against concurrent polls, as items are only ever removed once.
+     *
+     * @param max Maximum number of tasks to remove.
+     * @return Removed tasks, in queue order.
+     */
+    Collection<QueuedTask<T>> steal(final int max) {
+        final Deque<QueuedTask<T>> result = new ArrayDeque<>();
+        QueuedTask<T> item;
+        while (result.size() < max && (item = tasks.peekLast()) != null && !item.isPinned()) {
+            if (tasks.removeLastOccurrence(item)) {
+                result.offerFirst(item);
+            }
+        }
+        moved(-result.size());
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        int count = 0;
+        while (tasks.poll() != null) {
+            count++;
         }
+        discarded(count);
     }
 
 }
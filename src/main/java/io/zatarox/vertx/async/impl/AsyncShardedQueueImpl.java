@@ -0,0 +1,310 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.impl.ConcurrentHashSet;
+import io.zatarox.vertx.async.api.AsyncWorker;
+import io.zatarox.vertx.async.api.AsyncWorkerListener;
+import io.zatarox.vertx.async.api.AsyncWorkerMetrics;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.api.Histogram;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A queue spread over several contexts, typically one per event loop, so
+ * workers use several cores. Each shard is a queue of its own, bound to one
+ * context. Tasks are routed by the hash of their key, so tasks of a key start
+ * in order on the same shard, or to the least loaded shard when no key is
+ * given.
+ * <p>
+ * With work stealing, a shard running out of tasks takes half of the waiting
+ * tasks of the busiest shard, from the end of its queue. Tasks with a key are
+ * pinned to their shard and never stolen. An idle shard is only woken up when
+ * a busy shard starts to hold tasks back, or after a steal leaves some behind,
+ * so a steady backlog does not signal on every task added.
+ * <p>
+ * Listeners are told the queue is empty once, when the last task added to
+ * any shard completes, rather than once per shard running dry.
+ *
+ * @param <T> Handled task type
+ */
+public final class AsyncShardedQueueImpl<T> implements AsyncWorker<T> {
+
+    private final List<AsyncQueueImpl<T>> shards;
+    private final Function<T, ?> key;
+    private final Set<AsyncWorkerListener> listeners = new ConcurrentHashSet();
+    // Tasks added and not completed yet, on any shard
+    private final AtomicLong outstanding = new AtomicLong(0);
+    private volatile boolean stealing = false;
+
+    /**
+     * @param contexts Contexts running the shards, one shard per context.
+     * @param worker The worker used to process the queue
+     * @param key A function returning the key of a task, or null to route
+     * tasks to the least loaded shard. Tasks with a null key are routed to
+     * the least loaded shard as well.
+     * @param concurrency Concurrency limit of each shard
+     */
+    public AsyncShardedQueueImpl(final List<Context> contexts, final BiHandler<T, Handler<AsyncResult<Void>>> worker, final Function<T, ?> key, final int concurrency) {
+        if (contexts.isEmpty()) {
+            throw new IllegalArgumentException("Must not be empty");
+        }
+        final List<AsyncQueueImpl<T>> result = new ArrayList<>(contexts.size());
+        final AsyncWorkerListener forwarder = new AsyncWorkerListener() {
+            @Override
+            public void poolEmpty(final AsyncWorker instance) {
+                // Listeners are told by the last completed task instead
+                if (stealing) {
+                    steal((AsyncQueueImpl<T>) instance);
+                }
+            }
+
+            @Override
+            public void poolFull(final AsyncWorker instance) {
+                listeners.stream().forEach(listener -> {
+                    listener.poolFull(AsyncShardedQueueImpl.this);
+                });
+            }
+        };
+        contexts.stream().forEach(context -> {
+            final AsyncQueueImpl<T> shard = new AsyncQueueImpl<>(context, worker, concurrency);
+            shard.add(forwarder);
+            result.add(shard);
+        });
+        this.shards = Collections.unmodifiableList(result);
+        this.key = key;
+    }
+
+    /**
+     * @return The shards, in the order of their contexts.
+     */
+    public List<AsyncQueueImpl<T>> getShards() {
+        return shards;
+    }
+
+    public boolean isStealing() {
+        return stealing;
+    }
+
+    /**
+     * @param stealing True to let idle shards take tasks waiting in the
+     * busiest one.
+     */
+    public void setStealing(final boolean stealing) {
+        this.stealing = stealing;
+    }
+
+    /**
+     * @param k Key of a task, or null.
+     * @return The shard running tasks of key {@code k}.
+     */
+    private AsyncQueueImpl<T> route(final Object k) {
+        AsyncQueueImpl<T> result;
+        if (k != null) {
+            final int hash = k.hashCode();
+            // Spread the high bits, as HashMap does
+            result = shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+        } else {
+            result = shards.get(0);
+            long lowest = Long.MAX_VALUE;
+            for (final AsyncQueueImpl<T> shard : shards) {
+                final long load = shard.getRunning() + shard.getDepth();
+                if (load < lowest) {
+                    lowest = load;
+                    result = shard;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Move half of the waiting tasks of the busiest shard to {@code thief}.
+     *
+     * @param thief A shard without waiting tasks.
+     */
+    private void steal(final AsyncQueueImpl<T> thief) {
+        if (thief.getRunning() < thief.getConcurrency() && !thief.isPaused()) {
+            AsyncQueueImpl<T> victim = null;
+            long highest = 0;
+            for (final AsyncQueueImpl<T> shard : shards) {
+                final long depth = shard.getDepth();
+                if (shard != thief && depth > highest) {
+                    highest = depth;
+                    victim = shard;
+                }
+            }
+            if (victim != null) {
+                final Collection<QueuedTask<T>> stolen = victim.steal((int) Math.min(Integer.MAX_VALUE, (highest + 1) / 2));
+                if (!stolen.isEmpty()) {
+                    thief.adopt(stolen);
+                    if (victim.getDepth() > 0) {
+                        wake(victim);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Account for a task done or dropped, and tell listeners once the last
+     * one is, so every shard firing its own event is seen as one.
+     *
+     * @param count Number of tasks.
+     */
+    private void done(final long count) {
+        if (count > 0 && outstanding.addAndGet(-count) == 0) {
+            listeners.stream().forEach(listener -> {
+                listener.poolEmpty(this);
+            });
+        }
+    }
+
+    /**
+     * Wake up an idle shard, it steals tasks when it finds none.
+     *
+     * @param busy A shard holding tasks back.
+     */
+    private void wake(final AsyncQueueImpl<T> busy) {
+        shards.stream().filter(other -> other != busy && other.isIdle()).findFirst().ifPresent(other -> {
+            other.handle(null);
+        });
+    }
+
+    @Override
+    public boolean add(final T task, final Handler<AsyncResult<Void>> handler, final boolean top) {
+        final Object k = key == null ? null : key.apply(task);
+        final AsyncQueueImpl<T> shard = route(k);
+        final boolean backlog = shard.getDepth() > 0;
+        outstanding.incrementAndGet();
+        final boolean result = shard.add(new QueuedTask<>(task, event -> {
+            try {
+                handler.handle(event);
+            } finally {
+                done(1);
+            }
+        }, k != null), top);
+        if (!result) {
+            done(1);
+        }
+        if (stealing && !backlog && shard.getRunning() >= shard.getConcurrency() && shard.getDepth() > 0) {
+            wake(shard);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean add(final AsyncWorkerListener listener) {
+        return listeners.add(listener);
+    }
+
+    @Override
+    public boolean remove(final AsyncWorkerListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * @return The sum of the concurrency limits of the shards.
+     */
+    @Override
+    public int getConcurrency() {
+        return shards.stream().mapToInt(AsyncQueueImpl::getConcurrency).sum();
+    }
+
+    /**
+     * @param concurrency Total concurrency limit, spread evenly between
+     * shards. Each shard runs at least one task at once.
+     */
+    @Override
+    public void setConcurrency(final int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            final int share = concurrency / shards.size() + (i < concurrency % shards.size() ? 1 : 0);
+            shards.get(i).setConcurrency(Math.max(1, share));
+        }
+    }
+
+    @Override
+    public int getRunning() {
+        return shards.stream().mapToInt(AsyncQueueImpl::getRunning).sum();
+    }
+
+    @Override
+    public boolean isIdle() {
+        return shards.stream().allMatch(AsyncQueueImpl::isIdle);
+    }
+
+    @Override
+    public void clear() {
+        shards.stream().forEach(AsyncQueueImpl::clear);
+        // Dropped tasks never complete, only the running ones are left
+        done(outstanding.get() - getRunning());
+    }
+
+    @Override
+    public boolean isPaused() {
+        return shards.stream().allMatch(AsyncQueueImpl::isPaused);
+    }
+
+    @Override
+    public void setPaused(final boolean paused) {
+        shards.stream().forEach(shard -> {
+            shard.setPaused(paused);
+        });
+    }
+
+    /**
+     * @return Metrics of all shards added up.
+     */
+    @Override
+    public AsyncWorkerMetrics getMetrics() {
+        long enqueued = 0;
+        long started = 0;
+        long completed = 0;
+        long failed = 0;
+        long depth = 0;
+        int running = 0;
+        int concurrency = 0;
+        final List<Histogram> waitTimes = new ArrayList<>(shards.size());
+        final List<Histogram> serviceTimes = new ArrayList<>(shards.size());
+        for (final AsyncQueueImpl<T> shard : shards) {
+            final AsyncWorkerMetrics metrics = shard.getMetrics();
+            enqueued += metrics.getEnqueued();
+            started += metrics.getStarted();
+            completed += metrics.getCompleted();
+            failed += metrics.getFailed();
+            depth += metrics.getDepth();
+            running += metrics.getRunning();
+            concurrency += metrics.getConcurrency();
+            waitTimes.add(metrics.getWaitTime());
+            serviceTimes.add(metrics.getServiceTime());
+        }
+        return new AsyncWorkerMetricsImpl(enqueued, started, completed, failed, depth, running, concurrency,
+                LogLinearHistogram.merge(waitTimes), LogLinearHistogram.merge(serviceTimes));
+    }
+
+}
@@ -20,11 +20,19 @@ import io.zatarox.vertx.async.api.AsyncMemoize;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.zatarox.vertx.async.api.AsyncUtils;
 import io.zatarox.vertx.async.api.BiHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 public final class AsyncUtilsImpl implements AsyncUtils {
@@ -75,4 +83,71 @@ public final class AsyncUtilsImpl implements AsyncUtils {
         };
     }
 
+    @Override
+    public <T> void fromCompletionStage(final CompletionStage<T> stage, final Handler<AsyncResult<T>> handler) {
+        stage.whenComplete((result, cause) -> {
+            final AsyncResult<T> event = cause == null ? DefaultAsyncResult.succeed(result) : DefaultAsyncResult.fail(unwrap(cause));
+            if (Vertx.currentContext() == context) {
+                handler.handle(event);
+            } else {
+                context.runOnContext(aVoid -> handler.handle(event));
+            }
+        });
+    }
+
+    @Override
+    public <T> void fromCompletionStages(final List<? extends CompletionStage<T>> stages, final Handler<AsyncResult<List<T>>> handler) {
+        if (stages.isEmpty()) {
+            handler.handle(DefaultAsyncResult.succeed(Collections.emptyList()));
+        } else {
+            final List<T> results = new ArrayList<>(Collections.nCopies(stages.size(), null));
+            final AtomicBoolean stop = new AtomicBoolean(false);
+            final AtomicInteger counter = new AtomicInteger(stages.size());
+            for (int i = 0; i < stages.size(); i++) {
+                final int pos = i;
+                fromCompletionStage(stages.get(i), event -> {
+                    if (event.failed() || stop.get()) {
+                        if (!stop.get()) {
+                            stop.set(true);
+                            handler.handle(DefaultAsyncResult.fail(event));
+                        }
+                    } else {
+                        results.set(pos, event.result());
+                        if (counter.decrementAndGet() == 0) {
+                            handler.handle(DefaultAsyncResult.succeed(results));
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public <T> CompletionStage<T> toCompletionStage(final Handler<Handler<AsyncResult<T>>> function) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Handler<Void> task = aVoid -> {
+            try {
+                function.handle(event -> {
+                    if (event.succeeded()) {
+                        future.complete(event.result());
+                    } else {
+                        future.completeExceptionally(event.cause());
+                    }
+                });
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        };
+        if (Vertx.currentContext() == context) {
+            task.handle(null);
+        } else {
+            context.runOnContext(task);
+        }
+        return future;
+    }
+
+    private static Throwable unwrap(final Throwable cause) {
+        return cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+    }
+
 }
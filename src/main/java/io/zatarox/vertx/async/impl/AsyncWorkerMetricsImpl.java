@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.zatarox.vertx.async.api.AsyncWorkerMetrics;
+import io.zatarox.vertx.async.api.Histogram;
+
+public final class AsyncWorkerMetricsImpl implements AsyncWorkerMetrics {
+
+    private final long enqueued;
+    private final long started;
+    private final long completed;
+    private final long failed;
+    private final long depth;
+    private final int running;
+    private final int concurrency;
+    private final Histogram waitTime;
+    private final Histogram serviceTime;
+
+    public AsyncWorkerMetricsImpl(final long enqueued, final long started, final long completed, final long failed, final long depth, final int running, final int concurrency, final Histogram waitTime, final Histogram serviceTime) {
+        this.enqueued = enqueued;
+        this.started = started;
+        this.completed = completed;
+        this.failed = failed;
+        this.depth = depth;
+        this.running = running;
+        this.concurrency = concurrency;
+        this.waitTime = waitTime;
+        this.serviceTime = serviceTime;
+    }
+
+    @Override
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    @Override
+    public long getStarted() {
+        return started;
+    }
+
+    @Override
+    public long getCompleted() {
+        return completed;
+    }
+
+    @Override
+    public long getFailed() {
+        return failed;
+    }
+
+    @Override
+    public long getDepth() {
+        return depth;
+    }
+
+    @Override
+    public int getRunning() {
+        return running;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public Histogram getWaitTime() {
+        return waitTime;
+    }
+
+    @Override
+    public Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+}
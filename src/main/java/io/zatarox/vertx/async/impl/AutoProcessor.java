@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.api.Pair;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs named tasks as soon as their dependencies have completed, with at most
+ * {@code limit} tasks in flight.
+ * <p>
+ * The graph is checked before anything runs: unknown dependencies and cycles
+ * fail the handler without running any task. Each task is then released by
+ * counting down its remaining dependencies, so scheduling is linear in the
+ * number of edges.
+ * <p>
+ * State is only accessed from the context, callbacks completed elsewhere are
+ * posted to it. Callbacks completed synchronously are picked up by the
+ * scheduling loop instead of recursing into it.
+ *
+ * @param <T> Result type
+ */
+final class AutoProcessor<T> {
+
+    private final Context context;
+    private final Map<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> tasks;
+    private final int limit;
+    private final Handler<AsyncResult<Map<String, T>>> handler;
+    private final Map<String, T> results = new HashMap<>();
+    private final Map<String, Integer> remaining = new HashMap<>();
+    private final Map<String, List<String>> dependents = new HashMap<>();
+    private final Deque<String> ready = new ArrayDeque<>();
+    private int running = 0;
+    private boolean scheduling = false;
+    private boolean done = false;
+
+    AutoProcessor(final Context context, final Map<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> tasks, final int limit, final Handler<AsyncResult<Map<String, T>>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.context = context;
+        this.tasks = tasks;
+        this.limit = limit;
+        this.handler = handler;
+    }
+
+    void start() {
+        for (final Map.Entry<String, Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>>> entry : tasks.entrySet()) {
+            final Collection<String> dependencies = entry.getValue().getKey() == null ? Collections.emptyList() : entry.getValue().getKey();
+            for (final String dependency : dependencies) {
+                if (!tasks.containsKey(dependency)) {
+                    fail(new IllegalArgumentException("Task " + entry.getKey() + " depends on unknown task " + dependency));
+                    return;
+                }
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+            }
+            remaining.put(entry.getKey(), dependencies.size());
+            if (dependencies.isEmpty()) {
+                ready.add(entry.getKey());
+            }
+        }
+        if (!acyclic()) {
+            fail(new IllegalArgumentException("Tasks have a dependency cycle"));
+        } else {
+            schedule();
+        }
+    }
+
+    private boolean acyclic() {
+        final Map<String, Integer> counts = new HashMap<>(remaining);
+        final Deque<String> queue = new ArrayDeque<>(ready);
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            visited++;
+            for (final String dependent : dependents.getOrDefault(queue.poll(), Collections.emptyList())) {
+                if (counts.merge(dependent, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return visited == tasks.size();
+    }
+
+    private void schedule() {
+        scheduling = true;
+        try {
+            while (!done && running < limit && !ready.isEmpty()) {
+                final String name = ready.poll();
+                running++;
+                tasks.get(name).getValue().handle(Collections.unmodifiableMap(results), result -> {
+                    if (Vertx.currentContext() == context) {
+                        completed(name, result);
+                    } else {
+                        context.runOnContext(event -> {
+                            completed(name, result);
+                        });
+                    }
+                });
+            }
+            if (!done && results.size() == tasks.size()) {
+                done = true;
+                handler.handle(DefaultAsyncResult.succeed(results));
+            }
+        } catch (Throwable ex) {
+            fail(ex);
+        } finally {
+            scheduling = false;
+        }
+    }
+
+    private void completed(final String name, final AsyncResult<T> result) {
+        if (done) {
+            return;
+        }
+        running--;
+        if (result.failed()) {
+            fail(result.cause());
+        } else {
+            results.put(name, result.result());
+            for (final String dependent : dependents.getOrDefault(name, Collections.emptyList())) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+            if (!scheduling) {
+                schedule();
+            }
+        }
+    }
+
+    private void fail(final Throwable cause) {
+        if (!done) {
+            done = true;
+            handler.handle(DefaultAsyncResult.fail(cause));
+        }
+    }
+
+}
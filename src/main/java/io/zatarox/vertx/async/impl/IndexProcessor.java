@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Applies a function to the indexes from 0 to {@code count} (exclusive), with
+ * at most {@code limit} indexes in flight, passing each result to
+ * {@code sink} with its index. Work is generated from the next index when a
+ * slot is free, so memory does not grow with {@code count}. With a limit of
+ * one, results reach the sink in index order.
+ * <p>
+ * State is only accessed from the context, callbacks completed elsewhere are
+ * posted to it. Callbacks completed synchronously are picked up by the
+ * scheduling loop instead of recursing into it.
+ *
+ * @param <T> Result type
+ */
+final class IndexProcessor<T> {
+
+    private final Context context;
+    private final int count;
+    private final int limit;
+    private final BiHandler<Integer, Handler<AsyncResult<T>>> function;
+    private final ObjIntConsumer<T> sink;
+    private final Handler<AsyncResult<Void>> handler;
+    private int next = 0;
+    private int completed = 0;
+    private boolean scheduling = false;
+    private boolean done = false;
+
+    IndexProcessor(final Context context, final int count, final int limit, final BiHandler<Integer, Handler<AsyncResult<T>>> function, final ObjIntConsumer<T> sink, final Handler<AsyncResult<Void>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.context = context;
+        this.count = Math.max(0, count);
+        this.limit = limit;
+        this.function = function;
+        this.sink = sink;
+        this.handler = handler;
+    }
+
+    void start() {
+        schedule();
+    }
+
+    private void schedule() {
+        scheduling = true;
+        try {
+            while (!done && next - completed < limit && next < count) {
+                final int index = next++;
+                function.handle(index, result -> {
+                    if (Vertx.currentContext() == context) {
+                        completed(index, result);
+                    } else {
+                        context.runOnContext(event -> {
+                            completed(index, result);
+                        });
+                    }
+                });
+            }
+            if (!done && completed == count) {
+                done = true;
+                handler.handle(DefaultAsyncResult.succeed());
+            }
+        } catch (Throwable ex) {
+            fail(ex);
+        } finally {
+            scheduling = false;
+        }
+    }
+
+    private void completed(final int index, final AsyncResult<T> result) {
+        if (done) {
+            return;
+        }
+        if (result.failed()) {
+            fail(result.cause());
+        } else {
+            completed++;
+            try {
+                sink.accept(result.result(), index);
+            } catch (Throwable ex) {
+                fail(ex);
+                return;
+            }
+            if (!scheduling) {
+                schedule();
+            }
+        }
+    }
+
+    private void fail(final Throwable cause) {
+        if (!done) {
+            done = true;
+            handler.handle(DefaultAsyncResult.fail(cause));
+        }
+    }
+
+}
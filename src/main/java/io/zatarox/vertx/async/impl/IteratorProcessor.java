@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.Iterator;
+import java.util.function.BiPredicate;
+
+/**
+ * Applies a function to the items of an {@link Iterator}, with at most
+ * {@code limit} items in flight. Items are only pulled from the iterator when
+ * a slot is free, so the source never has to be materialized.
+ * <p>
+ * The processing stops at the first failure, or at the first item for which
+ * {@code until} holds, and the handler is called with that item. Otherwise
+ * the handler is called with {@code null} once the iterator is exhausted and
+ * every item has completed.
+ * <p>
+ * State is only accessed from the context, callbacks completed elsewhere are
+ * posted to it. Callbacks completed synchronously are picked up by the pulling
+ * loop instead of recursing into it.
+ *
+ * @param <T> Input type
+ * @param <R> Result type
+ */
+final class IteratorProcessor<T, R> {
+
+    private final Context context;
+    private final Iterator<T> source;
+    private final int limit;
+    private final BiHandler<T, Handler<AsyncResult<R>>> function;
+    private final BiPredicate<T, R> until;
+    private final Handler<AsyncResult<T>> handler;
+    private int running = 0;
+    private boolean pulling = false;
+    private boolean done = false;
+
+    IteratorProcessor(final Context context, final Iterator<T> source, final int limit, final BiHandler<T, Handler<AsyncResult<R>>> function, final BiPredicate<T, R> until, final Handler<AsyncResult<T>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.context = context;
+        this.source = source;
+        this.limit = limit;
+        this.function = function;
+        this.until = until;
+        this.handler = handler;
+    }
+
+    void start() {
+        pull();
+    }
+
+    private void pull() {
+        pulling = true;
+        try {
+            while (!done && running < limit && source.hasNext()) {
+                final T item = source.next();
+                running++;
+                function.handle(item, result -> {
+                    if (Vertx.currentContext() == context) {
+                        completed(item, result);
+                    } else {
+                        context.runOnContext(event -> {
+                            completed(item, result);
+                        });
+                    }
+                });
+            }
+            if (!done && running == 0) {
+                done = true;
+                handler.handle(DefaultAsyncResult.succeed(null));
+            }
+        } catch (Throwable ex) {
+            fail(ex);
+        } finally {
+            pulling = false;
+        }
+    }
+
+    private void completed(final T item, final AsyncResult<R> result) {
+        if (done) {
+            return;
+        }
+        running--;
+        if (result.failed()) {
+            fail(result.cause());
+        } else if (until.test(item, result.result())) {
+            done = true;
+            handler.handle(DefaultAsyncResult.succeed(item));
+        } else if (!pulling) {
+            pull();
+        }
+    }
+
+    private void fail(final Throwable cause) {
+        if (!done) {
+            done = true;
+            handler.handle(DefaultAsyncResult.fail(cause));
+        }
+    }
+
+}
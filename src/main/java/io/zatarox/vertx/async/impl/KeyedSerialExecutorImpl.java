@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.KeyedSerialExecutor;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The presence of a key in {@code chains} means one of its tasks is running,
+ * its deque holds the tasks waiting behind. Deques are only touched inside
+ * atomic {@code compute} calls of their key. The chain moves on once per task,
+ * even if the task or the handler throws.
+ *
+ * @param <K> The key type.
+ */
+public final class KeyedSerialExecutorImpl<K> implements KeyedSerialExecutor<K> {
+
+    private final ConcurrentMap<K, Deque<Handler<Void>>> chains = new ConcurrentHashMap<>();
+    private final Context context;
+
+    public KeyedSerialExecutorImpl(final Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public <T> void execute(final K key, final Handler<Handler<AsyncResult<T>>> task, final Handler<AsyncResult<T>> handler) {
+        final Handler<Void> run = event -> {
+            final AtomicBoolean done = new AtomicBoolean(false);
+            final Handler<AsyncResult<T>> callback = result -> {
+                if (done.compareAndSet(false, true)) {
+                    try {
+                        handler.handle(result);
+                    } finally {
+                        next(key);
+                    }
+                }
+            };
+            try {
+                task.handle(callback);
+            } catch (RuntimeException ex) {
+                if (done.get()) {
+                    // Thrown by the handler, the chain has moved on
+                    throw ex;
+                }
+                callback.handle(DefaultAsyncResult.fail(ex));
+            }
+        };
+        final boolean[] first = new boolean[1];
+        chains.compute(key, (k, waiting) -> {
+            first[0] = waiting == null;
+            if (waiting == null) {
+                return new ArrayDeque<>();
+            }
+            waiting.offer(run);
+            return waiting;
+        });
+        if (first[0]) {
+            context.runOnContext(run);
+        }
+    }
+
+    private void next(final K key) {
+        final Handler<Void>[] next = new Handler[1];
+        chains.computeIfPresent(key, (k, waiting) -> {
+            next[0] = waiting.poll();
+            return next[0] == null ? null : waiting;
+        });
+        if (next[0] != null) {
+            // Hop through the context so synchronous tasks do not recurse
+            context.runOnContext(next[0]);
+        }
+    }
+
+    @Override
+    public int getActiveKeys() {
+        return chains.size();
+    }
+
+    @Override
+    public boolean isIdle() {
+        return chains.isEmpty();
+    }
+
+}
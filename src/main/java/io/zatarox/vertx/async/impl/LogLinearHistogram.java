@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.zatarox.vertx.async.api.Histogram;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size histogram of positive values. Each power of two is split in
+ * {@code 2^SUB_BITS} linear buckets, so recording is a lock-free increment and
+ * values are known within {@code 1/2^SUB_BITS} of their magnitude.
+ */
+public final class LogLinearHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong(0);
+
+    static int index(final long value) {
+        final int result;
+        if (value < SUB_COUNT) {
+            result = (int) Math.max(0, value);
+        } else {
+            final int exponent = 63 - Long.numberOfLeadingZeros(value);
+            final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+            result = (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+        return result;
+    }
+
+    static long highestValue(final int index) {
+        final long result;
+        if (index < SUB_COUNT) {
+            result = index;
+        } else {
+            final int shift = index / SUB_COUNT - 1;
+            final long lowest = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+            result = lowest + (1L << shift) - 1;
+        }
+        return result;
+    }
+
+    /**
+     * @param value Value to record, negative ones are recorded as 0.
+     */
+    public void record(final long value) {
+        final long sanitized = Math.max(0, value);
+        buckets.incrementAndGet(index(sanitized));
+        sum.add(sanitized);
+        long previous;
+        while ((previous = max.get()) < sanitized && !max.compareAndSet(previous, sanitized)) {
+            // Retry until the highest value is published
+        }
+    }
+
+    /**
+     * @return An immutable copy of the current distribution.
+     */
+    public Histogram snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, sum.sum(), max.get());
+    }
+
+    /**
+     * @param histograms Snapshots to add up.
+     * @return A snapshot of all the values recorded in {@code histograms}.
+     */
+    public static Histogram merge(final Collection<Histogram> histograms) {
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (final Histogram histogram : histograms) {
+            final Snapshot snapshot = (Snapshot) histogram;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += snapshot.counts[i];
+            }
+            count += snapshot.count;
+            sum += snapshot.sum;
+            max = Math.max(max, snapshot.max);
+        }
+        return new Snapshot(counts, count, sum, max);
+    }
+
+    private static final class Snapshot implements Histogram {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(final long[] counts, final long count, final long sum, final long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        @Override
+        public long getPercentile(final double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Must be between 0 and 100");
+            }
+            final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, highestValue(i));
+                }
+            }
+            return max;
+        }
+    }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal of tasks, stored in a memory-mapped segment file. Each
+ * record is {@code [length][type][id][payload]}, where the type tells a task
+ * from the acknowledgement of one. A zero length ends the journal, so it is
+ * written after every record.
+ * <p>
+ * Records reach the page cache as soon as they are appended, so they survive
+ * a crash of the process. {@link #force()} makes them survive a crash of the
+ * system too.
+ * <p>
+ * Appending and acknowledging never block on I/O, so they may be called from
+ * an event loop. When the segment is full, a task is refused and an
+ * acknowledgement is only kept in memory until {@link #compact()} copies the
+ * records of pending tasks to a new segment which replaces the current one.
+ * Opening, compacting, forcing and closing are blocking, and must be run on a
+ * worker thread. Compacting and forcing are serialized, so a force never runs
+ * on a segment being replaced.
+ *
+ * @param <T> Journaled task type
+ */
+public final class MappedJournal<T> implements Closeable {
+
+    private static final byte TASK = 1;
+    private static final byte ACK = 2;
+    private static final int HEADER = Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final MessageCodec<T, T> codec;
+    // Offset and size of the records of pending tasks, in insertion order
+    private final Map<Long, int[]> pending = new LinkedHashMap<>();
+    // Held by blocking operations, never while appending or acknowledging
+    private final Object io = new Object();
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int position = 0;
+    private long nextId = 0;
+    // Size of the largest record refused since the last compaction
+    private int needed = 0;
+    private boolean skipped = false;
+
+    /**
+     * Open the journal, and read the pending tasks it holds. Blocking.
+     *
+     * @param path Path of the segment file, created if missing.
+     * @param capacity Initial size of the segment, in bytes.
+     * @param codec Codec of tasks.
+     * @throws IOException If the segment cannot be read or mapped.
+     */
+    public MappedJournal(final Path path, final int capacity, final MessageCodec<T, T> codec) throws IOException {
+        if (capacity < HEADER * 2) {
+            throw new IllegalArgumentException("Must be at least " + HEADER * 2);
+        }
+        this.path = path;
+        this.codec = codec;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        replay();
+    }
+
+    private void replay() {
+        final MappedByteBuffer current = buffer;
+        while (position + HEADER <= current.capacity()) {
+            final int length = current.getInt(position);
+            if (length < HEADER - Integer.BYTES || position + Integer.BYTES + length > current.capacity()) {
+                break;
+            }
+            final long id = current.getLong(position + Integer.BYTES + Byte.BYTES);
+            if (current.get(position + Integer.BYTES) == TASK) {
+                pending.put(id, new int[]{position, Integer.BYTES + length});
+            } else {
+                pending.remove(id);
+            }
+            nextId = Math.max(nextId, id + 1);
+            position += Integer.BYTES + length;
+        }
+    }
+
+    /**
+     * @param task Task to store.
+     * @return Identifier of the task, used to acknowledge it, or -1 if the
+     * segment is full and must be compacted first.
+     */
+    public synchronized long append(final T task) {
+        final Buffer payload = Buffer.buffer();
+        codec.encodeToWire(payload, task);
+        final int size = HEADER + payload.length();
+        if (!fits(size)) {
+            return -1;
+        }
+        final long id = nextId++;
+        final int offset = write(TASK, id, payload.getBytes());
+        pending.put(id, new int[]{offset, size});
+        return id;
+    }
+
+    /**
+     * Mark a task as processed, it will not be read again. If the segment is
+     * full, the acknowledgement is only kept in memory until the next
+     * compaction: the task is read again if the process stops before.
+     *
+     * @param id Identifier of the task.
+     */
+    public synchronized void ack(final long id) {
+        if (pending.remove(id) != null) {
+            if (pending.isEmpty()) {
+                // Nothing to keep, start again from the beginning
+                position = 0;
+                buffer.putInt(0, 0);
+            } else if (fits(HEADER)) {
+                write(ACK, id, new byte[0]);
+            } else {
+                skipped = true;
+            }
+        }
+    }
+
+    private boolean fits(final int size) {
+        if (position + size + Integer.BYTES > buffer.capacity()) {
+            needed = Math.max(needed, size + Integer.BYTES);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return True if a task was refused, or an acknowledgement was not
+     * written, since the last compaction.
+     */
+    public synchronized boolean isFull() {
+        return needed > 0 || skipped;
+    }
+
+    private int write(final byte type, final long id, final byte[] payload) {
+        final int size = HEADER + payload.length;
+        final MappedByteBuffer current = buffer;
+        final int offset = position;
+        current.put(offset + Integer.BYTES, type);
+        current.putLong(offset + Integer.BYTES + Byte.BYTES, id);
+        final ByteBuffer view = current.duplicate();
+        view.position(offset + HEADER);
+        view.put(payload);
+        current.putInt(offset + size, 0);
+        // The length is written last, it validates the record
+        current.putInt(offset, size - Integer.BYTES);
+        position += size;
+        return offset;
+    }
+
+    /**
+     * Copy the records of pending tasks to a new segment, large enough to hold
+     * {@code extra} more bytes, and replace the current one with it.
+     *
+     * @param extra Free space needed after compaction.
+     * @throws IOException If the new segment cannot be written.
+     */
+    private void compact(final int extra) throws IOException {
+        final MappedByteBuffer current = buffer;
+        final int used = pending.values().stream().mapToInt(record -> record[1]).sum();
+        int capacity = current.capacity();
+        while (used + extra > capacity / 2 && capacity < Integer.MAX_VALUE / 2) {
+            capacity *= 2;
+        }
+        final Path temporary = path.resolveSibling(path.getFileName() + ".compact");
+        final FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final MappedByteBuffer next = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        int offset = 0;
+        for (final int[] record : pending.values()) {
+            final ByteBuffer view = current.duplicate();
+            view.limit(record[0] + record[1]).position(record[0]);
+            next.position(offset);
+            next.put(view);
+            record[0] = offset;
+            offset += record[1];
+        }
+        next.putInt(offset, 0);
+        next.force();
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = target;
+        buffer = next;
+        position = offset;
+        needed = 0;
+        skipped = false;
+    }
+
+    /**
+     * Copy the records of pending tasks to a new segment, large enough for
+     * the largest record refused meanwhile. Blocking, appending and
+     * acknowledging wait for it.
+     *
+     * @throws IOException If the new segment cannot be written.
+     */
+    public void compact() throws IOException {
+        synchronized (io) {
+            synchronized (this) {
+                compact(needed);
+            }
+        }
+    }
+
+    /**
+     * @return Pending tasks by identifier, in insertion order.
+     */
+    public synchronized Map<Long, T> getPending() {
+        final Map<Long, T> result = new LinkedHashMap<>();
+        pending.entrySet().stream().forEach(entry -> {
+            final int[] record = entry.getValue();
+            final byte[] payload = new byte[record[1] - HEADER];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(record[0] + HEADER);
+            view.get(payload);
+            result.put(entry.getKey(), codec.decodeFromWire(0, Buffer.buffer(payload)));
+        });
+        return result;
+    }
+
+    /**
+     * @return Number of pending tasks.
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * @return Size of the segment, in bytes.
+     */
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Write appended records to the storage device. Blocking, so must not be
+     * called from an event loop. Appending is not held up meanwhile.
+     */
+    public void force() {
+        synchronized (io) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Write appended records to the storage device and release the segment.
+     * Blocking.
+     *
+     * @throws IOException If the segment cannot be released.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (io) {
+            synchronized (this) {
+                buffer.force();
+                channel.close();
+            }
+        }
+    }
+
+}
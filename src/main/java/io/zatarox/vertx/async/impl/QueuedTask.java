@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.Pair;
+
+/**
+ * A task waiting in a worker, with its handler and the time it was added.
+ *
+ * @param <T> Handled task type
+ */
+public final class QueuedTask<T> implements Pair<T, Handler<AsyncResult<Void>>> {
+
+    private final T task;
+    private final Handler<AsyncResult<Void>> handler;
+    private final long enqueued;
+    private final boolean pinned;
+
+    public QueuedTask(final T task, final Handler<AsyncResult<Void>> handler) {
+        this(task, handler, false);
+    }
+
+    /**
+     * @param task The task to run.
+     * @param handler Handler of the result of the task.
+     * @param pinned True if the task must run on the worker it was added to.
+     */
+    public QueuedTask(final T task, final Handler<AsyncResult<Void>> handler, final boolean pinned) {
+        this.task = task;
+        this.handler = handler;
+        this.enqueued = System.nanoTime();
+        this.pinned = pinned;
+    }
+
+    @Override
+    public T getKey() {
+        return task;
+    }
+
+    @Override
+    public Handler<AsyncResult<Void>> getValue() {
+        return handler;
+    }
+
+    /**
+     * @return Value of {@code System.nanoTime()} when the task was added.
+     */
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    /**
+     * @return True if the task must not be moved to another worker.
+     */
+    public boolean isPinned() {
+        return pinned;
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.core.streams.WriteStream;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies a function to the items of a {@link ReadStream}, with at most
+ * {@code limit} items in flight. The source is paused when the limit is
+ * reached, and resumed when a slot is released.
+ * <p>
+ * With an output, results are written in the order of the source, and a slot
+ * is only released when its result is written. Results waiting for an earlier
+ * one, or for the output to drain, keep their slot, so memory is bounded by
+ * the limit whatever the size of the source.
+ * <p>
+ * State is only accessed from the context, callbacks completed elsewhere are
+ * posted to it.
+ *
+ * @param <I> Input type
+ * @param <O> Output type
+ */
+final class ReadStreamProcessor<I, O> {
+
+    private final Context context;
+    private final ReadStream<I> source;
+    private final int limit;
+    private final BiHandler<I, Handler<AsyncResult<O>>> function;
+    private final WriteStream<O> output;
+    private final Handler<AsyncResult<Void>> handler;
+    // Completed results waiting for their turn to be written, by index
+    private final Map<Long, O> ready = new HashMap<>();
+    private long read = 0;
+    private long written = 0;
+    private int slots = 0;
+    private boolean paused = false;
+    private boolean ended = false;
+    private boolean draining = false;
+    private boolean done = false;
+
+    ReadStreamProcessor(final Context context, final ReadStream<I> source, final int limit, final BiHandler<I, Handler<AsyncResult<O>>> function, final WriteStream<O> output, final Handler<AsyncResult<Void>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.context = context;
+        this.source = source;
+        this.limit = limit;
+        this.function = function;
+        this.output = output;
+        this.handler = handler;
+    }
+
+    void start() {
+        source.exceptionHandler(this::fail);
+        source.endHandler(event -> {
+            ended = true;
+            complete();
+        });
+        source.handler(this::process);
+    }
+
+    private void process(final I item) {
+        if (!done) {
+            final long index = read++;
+            if (++slots >= limit) {
+                paused = true;
+                source.pause();
+            }
+            try {
+                function.handle(item, result -> {
+                    if (Vertx.currentContext() == context) {
+                        completed(index, result);
+                    } else {
+                        context.runOnContext(event -> {
+                            completed(index, result);
+                        });
+                    }
+                });
+            } catch (Throwable ex) {
+                fail(ex);
+            }
+        }
+    }
+
+    private void completed(final long index, final AsyncResult<O> result) {
+        if (done) {
+            return;
+        }
+        if (result.failed()) {
+            fail(result.cause());
+        } else if (output == null) {
+            slots--;
+            resume();
+        } else {
+            ready.put(index, result.result());
+            flush();
+        }
+    }
+
+    private void flush() {
+        while (!done && ready.containsKey(written) && !output.writeQueueFull()) {
+            output.write(ready.remove(written++));
+            slots--;
+        }
+        if (!done && ready.containsKey(written) && !draining) {
+            draining = true;
+            output.drainHandler(event -> {
+                draining = false;
+                flush();
+            });
+        }
+        resume();
+    }
+
+    private void resume() {
+        if (paused && slots < limit && !ended) {
+            paused = false;
+            source.resume();
+        }
+        complete();
+    }
+
+    private void complete() {
+        if (!done && ended && slots == 0) {
+            done = true;
+            handler.handle(DefaultAsyncResult.succeed());
+        }
+    }
+
+    private void fail(final Throwable cause) {
+        if (!done) {
+            done = true;
+            ready.clear();
+            source.pause();
+            handler.handle(DefaultAsyncResult.fail(cause));
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+
+/**
+ * Reduces a collection with an associative {@code combiner}. The items are
+ * split into at most {@code limit} contiguous chunks, each chunk is mapped and
+ * folded in series concurrently with the others, then the partial results
+ * are merged pairwise in a balanced tree. Adjacent partials are always merged
+ * in order, so the combiner does not need to be commutative.
+ * <p>
+ * When {@code blocking} is set, the combiner only runs on the worker pool, so
+ * a CPU heavy combiner never blocks the context. The mapped values of a chunk
+ * are then kept until the chunk is folded in a single blocking call, and each
+ * node of the merge tree is another one.
+ * <p>
+ * State is only accessed from the context, mapped values completed elsewhere
+ * are posted to it before being combined.
+ *
+ * @param <I> Input type
+ * @param <O> Output type
+ */
+final class ReduceProcessor<I, O> {
+
+    private final Context context;
+    private final List<I> items;
+    private final O identity;
+    private final BiHandler<I, Handler<AsyncResult<O>>> mapper;
+    private final BinaryOperator<O> combiner;
+    private final int limit;
+    private final boolean blocking;
+    private final Handler<AsyncResult<O>> handler;
+    private final List<O> partials;
+    private int remaining;
+    private boolean done = false;
+
+    ReduceProcessor(final Context context, final Collection<I> collection, final O identity, final BiHandler<I, Handler<AsyncResult<O>>> mapper, final BinaryOperator<O> combiner, final int limit, final boolean blocking, final Handler<AsyncResult<O>> handler) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        this.context = context;
+        this.items = collection instanceof List ? (List<I>) collection : new ArrayList<>(collection);
+        this.identity = identity;
+        this.mapper = mapper;
+        this.combiner = combiner;
+        this.limit = limit;
+        this.blocking = blocking;
+        this.handler = handler;
+        this.partials = new ArrayList<>(Collections.nCopies(Math.min(limit, items.size()), identity));
+        this.remaining = partials.size();
+    }
+
+    void start() {
+        if (items.isEmpty()) {
+            done = true;
+            handler.handle(DefaultAsyncResult.succeed(identity));
+            return;
+        }
+        final int chunks = partials.size();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int pos = chunk;
+            final int from = (int) ((long) items.size() * chunk / chunks);
+            final int to = (int) ((long) items.size() * (chunk + 1) / chunks);
+            final List<O> mapped = blocking ? new ArrayList<>(to - from) : null;
+            new IndexProcessor<O>(context, to - from, 1, (index, callback) -> {
+                if (done) {
+                    callback.handle(DefaultAsyncResult.fail(new CancellationException()));
+                } else if (blocking) {
+                    mapper.handle(items.get(from + index), callback);
+                } else {
+                    mapper.handle(items.get(from + index), result -> {
+                        if (result.failed()) {
+                            callback.handle(result);
+                        } else if (Vertx.currentContext() == context) {
+                            combine(partials.get(pos), result.result(), callback);
+                        } else {
+                            context.runOnContext(event -> {
+                                combine(partials.get(pos), result.result(), callback);
+                            });
+                        }
+                    });
+                }
+            }, (value, index) -> {
+                if (blocking) {
+                    mapped.add(value);
+                } else {
+                    partials.set(pos, value);
+                }
+            }, result -> {
+                if (result.failed()) {
+                    fail(result.cause());
+                } else if (blocking) {
+                    fold(pos, mapped);
+                } else {
+                    folded();
+                }
+            }).start();
+        }
+    }
+
+    private void fold(final int pos, final List<O> mapped) {
+        context.<O>executeBlocking(future -> {
+            O value = identity;
+            for (final O item : mapped) {
+                value = combiner.apply(value, item);
+            }
+            future.complete(value);
+        }, false, result -> {
+            if (result.failed()) {
+                fail(result.cause());
+            } else if (!done) {
+                partials.set(pos, result.result());
+                folded();
+            }
+        });
+    }
+
+    private void folded() {
+        if (--remaining == 0) {
+            merge(partials);
+        }
+    }
+
+    private void merge(final List<O> level) {
+        if (level.size() == 1) {
+            done = true;
+            handler.handle(DefaultAsyncResult.succeed(level.get(0)));
+            return;
+        }
+        final List<O> next = new ArrayList<>(Collections.nCopies((level.size() + 1) / 2, null));
+        final int pairs = level.size() / 2;
+        if (level.size() % 2 == 1) {
+            next.set(pairs, level.get(level.size() - 1));
+        }
+        final AtomicInteger pending = new AtomicInteger(pairs);
+        for (int i = 0; i < pairs; i++) {
+            final int pos = i;
+            combine(level.get(2 * i), level.get(2 * i + 1), result -> {
+                if (result.failed()) {
+                    fail(result.cause());
+                } else if (!done) {
+                    next.set(pos, result.result());
+                    if (pending.decrementAndGet() == 0) {
+                        merge(next);
+                    }
+                }
+            });
+        }
+    }
+
+    private void combine(final O left, final O right, final Handler<AsyncResult<O>> callback) {
+        if (blocking) {
+            context.<O>executeBlocking(future -> {
+                future.complete(combiner.apply(left, right));
+            }, false, callback);
+        } else {
+            final O value;
+            try {
+                value = combiner.apply(left, right);
+            } catch (Throwable ex) {
+                callback.handle(DefaultAsyncResult.fail(ex));
+                return;
+            }
+            callback.handle(DefaultAsyncResult.succeed(value));
+        }
+    }
+
+    private void fail(final Throwable cause) {
+        if (!done) {
+            done = true;
+            handler.handle(DefaultAsyncResult.fail(cause));
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.utils;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.zatarox.vertx.async.api.AsyncWorker;
+import io.zatarox.vertx.async.api.BiHandler;
+import rx.Observable;
+import rx.functions.Func1;
+
+/**
+ * Adapters exposing asynchronous functions and workers as RxJava
+ * {@link Observable.Transformer}s, so they can be composed into reactive
+ * pipelines.
+ * <p>
+ * Demand is handled by the underlying RxJava operators: at most
+ * {@code limit} items are requested from upstream and in progress at a time,
+ * and further items are only requested as they complete and downstream asks
+ * for more. Nothing is buffered beyond the limit.
+ */
+public final class AsyncTransformers {
+
+    private AsyncTransformers() {
+    }
+
+    /**
+     * Maps each item through {@code function}, emitting results in the order
+     * of the upstream.
+     *
+     * @param <I> Input type
+     * @param <O> Output type
+     * @param function A function to apply to each item. Invoked with (item,
+     * callback).
+     * @param limit The maximum number of items in progress at a time.
+     * @return A transformer to pass to {@link Observable#compose}.
+     */
+    public static <I, O> Observable.Transformer<I, O> map(final BiHandler<I, Handler<AsyncResult<O>>> function, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        return upstream -> upstream.concatMapEager(single(function), limit, limit);
+    }
+
+    /**
+     * Applies {@code consumer} to each item, emitting each item once its
+     * consumer has completed, in completion order.
+     *
+     * @param <T> Item type
+     * @param consumer A function to apply to each item. Invoked with (item,
+     * callback).
+     * @param limit The maximum number of items in progress at a time.
+     * @return A transformer to pass to {@link Observable#compose}.
+     */
+    public static <T> Observable.Transformer<T, T> each(final BiHandler<T, Handler<AsyncResult<Void>>> consumer, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must be positive");
+        }
+        final Func1<T, Observable<Void>> function = single(consumer);
+        return upstream -> upstream.flatMap(item -> function.call(item).map(event -> item), limit);
+    }
+
+    /**
+     * Submits each item to {@code worker}, emitting each item once the worker
+     * has processed it, in completion order.
+     *
+     * @param <T> Item type
+     * @param worker The worker processing the items.
+     * @param limit The maximum number of items submitted and not yet processed
+     * at a time.
+     * @return A transformer to pass to {@link Observable#compose}.
+     */
+    public static <T> Observable.Transformer<T, T> worker(final AsyncWorker<T> worker, final int limit) {
+        return each((item, handler) -> {
+            if (!worker.add(item, handler, false)) {
+                handler.handle(DefaultAsyncResult.fail(new IllegalStateException("Task rejected by the worker")));
+            }
+        }, limit);
+    }
+
+    private static <I, O> Func1<I, Observable<O>> single(final BiHandler<I, Handler<AsyncResult<O>>> function) {
+        return item -> Observable.create(subscriber -> {
+            try {
+                function.handle(item, result -> {
+                    if (!subscriber.isUnsubscribed()) {
+                        if (result.failed()) {
+                            subscriber.onError(result.cause());
+                        } else {
+                            subscriber.onNext(result.result());
+                            subscriber.onCompleted();
+                        }
+                    }
+                });
+            } catch (Throwable ex) {
+                subscriber.onError(ex);
+            }
+        });
+    }
+
+}
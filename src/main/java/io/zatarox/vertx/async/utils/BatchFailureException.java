@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.utils;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reports a partial failure of a batch. Items are identified by their
+ * position in the batch passed to the worker; items without a cause are
+ * considered as succeeded.
+ */
+public final class BatchFailureException extends RuntimeException {
+
+    private final Map<Integer, Throwable> failures;
+
+    public BatchFailureException(final Map<Integer, Throwable> failures) {
+        super(failures.size() + " item(s) of the batch failed");
+        this.failures = failures;
+    }
+
+    /**
+     * @return Failure causes indexed by position in the batch.
+     */
+    public Map<Integer, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @param position Position of the item in the batch.
+     * @return The failure cause, or null if the item succeeded.
+     */
+    public Throwable getFailure(final int position) {
+        return failures.get(position);
+    }
+
+}
@@ -56,4 +56,11 @@ public final class AsyncFactorySingletonTest {
         assertNotSame(instance1, instance2);
     }
 
+    @Test
+    public void differentAsyncFuturesInstance(final TestContext context) {
+        final AsyncFutures instance1 = AsyncFactorySingleton.getInstance().createFutures(rule.vertx().getOrCreateContext());
+        final AsyncFutures instance2 = AsyncFactorySingleton.getInstance().createFutures(rule.vertx().getOrCreateContext());
+        assertNotSame(instance1, instance2);
+    }
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2004-2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.fakes;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.streams.ReadStream;
+import java.util.List;
+
+public final class FakeReadStream<T> implements ReadStream<T> {
+
+    private final Context context;
+    private final List<T> items;
+    private Handler<T> handler;
+    private Handler<Void> endHandler;
+    private int position = 0;
+    private boolean paused = false;
+    private boolean ended = false;
+
+    public FakeReadStream(final Context context, final List<T> items) {
+        this.context = context;
+        this.items = items;
+    }
+
+    private void emit() {
+        while (!paused && handler != null && position < items.size()) {
+            handler.handle(items.get(position++));
+        }
+        if (!paused && !ended && position == items.size()) {
+            ended = true;
+            if (endHandler != null) {
+                endHandler.handle(null);
+            }
+        }
+    }
+
+    @Override
+    public FakeReadStream<T> exceptionHandler(final Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public FakeReadStream<T> handler(final Handler<T> handler) {
+        this.handler = handler;
+        context.runOnContext(event -> emit());
+        return this;
+    }
+
+    @Override
+    public FakeReadStream<T> pause() {
+        paused = true;
+        return this;
+    }
+
+    @Override
+    public FakeReadStream<T> resume() {
+        paused = false;
+        context.runOnContext(event -> emit());
+        return this;
+    }
+
+    @Override
+    public FakeReadStream<T> endHandler(final Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        return this;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public int position() {
+        return position;
+    }
+}
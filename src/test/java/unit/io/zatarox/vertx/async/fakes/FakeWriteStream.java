@@ -0,0 +1,90 @@
+/*
+ * Copyright 2004-2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.fakes;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.streams.WriteStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class FakeWriteStream<T> implements WriteStream<T> {
+
+    private final Context context;
+    private final List<T> written = new ArrayList<>();
+    private Handler<Void> drainHandler;
+    private int maxSize;
+    private int buffered = 0;
+    private int maxBuffered = 0;
+
+    public FakeWriteStream(final Context context, final int maxSize) {
+        this.context = context;
+        this.maxSize = maxSize;
+    }
+
+    private void drain() {
+        buffered = 0;
+        if (drainHandler != null) {
+            final Handler<Void> handler = drainHandler;
+            drainHandler = null;
+            handler.handle(null);
+        }
+    }
+
+    @Override
+    public FakeWriteStream<T> exceptionHandler(final Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public FakeWriteStream<T> write(final T data) {
+        written.add(data);
+        maxBuffered = Math.max(maxBuffered, ++buffered);
+        if (buffered == maxSize) {
+            context.runOnContext(event -> drain());
+        }
+        return this;
+    }
+
+    @Override
+    public void end() {
+    }
+
+    @Override
+    public FakeWriteStream<T> setWriteQueueMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+        return buffered >= maxSize;
+    }
+
+    @Override
+    public FakeWriteStream<T> drainHandler(final Handler<Void> handler) {
+        this.drainHandler = handler;
+        return this;
+    }
+
+    public List<T> written() {
+        return written;
+    }
+
+    public int maxBuffered() {
+        return maxBuffered;
+    }
+}
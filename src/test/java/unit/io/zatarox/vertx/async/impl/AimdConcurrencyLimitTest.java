@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public final class AimdConcurrencyLimitTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 10;
+
+    private AimdConcurrencyLimit limit;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+
+    @Before
+    public void setUp() {
+        limit = new AimdConcurrencyLimit(2, 10);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unorderedBounds() {
+        assertNull(new AimdConcurrencyLimit(5, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBackoff() {
+        assertNull(new AimdConcurrencyLimit(1, 4, 1.5, 2));
+    }
+
+    @Test
+    public void increaseWhileBusyAndFast() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(1000, limit.getLimit(), false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void keepWhileApplicationLimited() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(1000, 0, false);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void decreaseOnFailure() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(1000, limit.getLimit(), false);
+        }
+        for (int i = 0; i < 3; i++) {
+            limit.update(1000, limit.getLimit(), true);
+            // Let the tasks in flight complete, without growing
+            for (int j = limit.getLimit(); j > 0; j--) {
+                limit.update(1000, 0, false);
+            }
+        }
+        assertEquals(7, limit.getLimit());
+    }
+
+    @Test
+    public void decreaseOncePerWindow() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(1000, limit.getLimit(), false);
+        }
+        // A burst of slow tasks as wide as the limit, one backoff
+        for (int i = 0; i < 9; i++) {
+            limit.update(100000, 10, false);
+        }
+        assertEquals(9, limit.getLimit());
+    }
+
+    @Test
+    public void decreaseOnLatency() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(1000, limit.getLimit(), false);
+        }
+        for (int i = 0; i < 100; i++) {
+            limit.update(5000, limit.getLimit(), false);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void keepWithBimodalLatency() {
+        // Cache hits and misses, no queueing
+        for (int i = 0; i < 1000; i++) {
+            limit.update(i % 2 == 0 ? 1000 : 10000, limit.getLimit(), false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void followLatencyChange() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(1000, limit.getLimit(), false);
+        }
+        for (int i = 0; i < 1000; i++) {
+            limit.update(5000, limit.getLimit(), false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test(timeout = AimdConcurrencyLimitTest.TIMEOUT_LIMIT)
+    @Repeat(value = AimdConcurrencyLimitTest.REPEAT_LIMIT, silent = true)
+    public void adaptQueueConcurrency(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncQueueImpl<Integer> queue = new AsyncQueueImpl<>((t, u) -> {
+            rule.vertx().setTimer(1, id -> u.handle(DefaultAsyncResult.succeed()));
+        }, 1);
+        queue.setAdaptiveConcurrency(1, 16);
+        context.assertTrue(queue.isAdaptive());
+        final Handler<AsyncResult<Void>> handler = event -> {
+            if (counter.incrementAndGet() == 200) {
+                context.assertTrue(queue.getConcurrency() > 1);
+                queue.setConcurrency(3);
+                context.assertFalse(queue.isAdaptive());
+                context.assertEquals(3, queue.getConcurrency());
+                async.complete();
+            }
+        };
+        for (int i = 0; i < 200; i++) {
+            queue.add(i, handler, false);
+        }
+    }
+
+}
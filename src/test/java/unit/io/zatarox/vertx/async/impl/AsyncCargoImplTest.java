@@ -16,7 +16,9 @@
 package io.zatarox.vertx.async.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Repeat;
@@ -24,6 +26,7 @@ import io.vertx.ext.unit.junit.RepeatRule;
 import io.vertx.ext.unit.junit.RunTestOnContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.zatarox.vertx.async.AsyncFactorySingleton;
+import io.zatarox.vertx.async.utils.BatchFailureException;
 import io.zatarox.vertx.async.utils.DefaultAsyncResult;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,10 +36,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import io.zatarox.vertx.async.api.AsyncWorkerListener;
 import io.zatarox.vertx.async.api.AsyncWorker;
+import io.zatarox.vertx.async.api.AsyncWorkerMetrics;
 import io.zatarox.vertx.async.api.BiHandler;
 import io.zatarox.vertx.async.api.Pair;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
@@ -72,7 +80,9 @@ public final class AsyncCargoImplTest {
         cargo = new AsyncCargoImpl(worker, 5);
         context.assertNotNull(cargo);
         context.assertEquals(0, cargo.getRunning());
-        context.assertEquals(5, cargo.getConcurrency());
+        // A single batch runs at once, the concurrency now says so
+        context.assertEquals(1, cargo.getConcurrency());
+        context.assertEquals(5, cargo.getPayload());
     }
 
     @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
@@ -162,6 +172,254 @@ public final class AsyncCargoImplTest {
         context.assertFalse(cargo.isIdle());
     }
 
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeBacklogInBoundedBatches(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            context.assertTrue(tasks.size() <= 5);
+            batches.incrementAndGet();
+            tasks.stream().forEach(task -> task.getValue().handle(DefaultAsyncResult.succeed()));
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 5);
+        context.assertTrue(cargo.add(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), event -> {
+            context.assertTrue(event.succeeded());
+            if (counter.incrementAndGet() == 12) {
+                context.assertEquals(3, batches.get());
+                async.complete();
+            }
+        }, false));
+        // Added from the context of the cargo, the batches ran inline
+        context.assertTrue(cargo.isIdle());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePayload() {
+        cargo.setPayload(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLinger() {
+        cargo.setLinger(TimeUnit.MILLISECONDS, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMinBatch() {
+        cargo.setMinBatch(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxWeight() {
+        cargo.setWeigher(item -> item, 0);
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeLingerFillsBatch(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final List<Integer> sizes = new CopyOnWriteArrayList<>();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            sizes.add(tasks.size());
+            tasks.stream().forEach(task -> task.getValue().handle(DefaultAsyncResult.succeed()));
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 5);
+        cargo.setLinger(TimeUnit.MILLISECONDS, 500);
+        cargo.setMinBatch(3);
+        context.assertEquals(500L, cargo.getLinger());
+        context.assertEquals(3, cargo.getMinBatch());
+        final Handler<AsyncResult<Void>> handler = event -> {
+            context.assertTrue(event.succeeded());
+            if (counter.incrementAndGet() == 3) {
+                context.assertEquals(Arrays.asList(3), sizes);
+                async.complete();
+            }
+        };
+        context.assertTrue(cargo.add(Arrays.asList(1), handler, false));
+        rule.vertx().setTimer(10, id -> {
+            context.assertEquals(0, counter.get());
+            context.assertTrue(cargo.add(Arrays.asList(2, 3), handler, false));
+        });
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeLingerExpiresWithPartialBatch(final TestContext context) {
+        final Async async = context.async();
+        final long start = System.currentTimeMillis();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            context.assertEquals(1, tasks.size());
+            tasks.stream().forEach(task -> task.getValue().handle(DefaultAsyncResult.succeed()));
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 5);
+        cargo.setLinger(TimeUnit.MILLISECONDS, 50);
+        context.assertTrue(cargo.add(Arrays.asList(1), event -> {
+            context.assertTrue(event.succeeded());
+            context.assertTrue(System.currentTimeMillis() - start >= 50);
+            async.complete();
+        }, false));
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeBatchesBoundedByWeight(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final List<Integer> sizes = new CopyOnWriteArrayList<>();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            context.assertTrue(tasks.size() == 1 || tasks.stream().mapToInt(task -> task.getKey()).sum() <= 10);
+            sizes.add(tasks.size());
+            tasks.stream().forEach(task -> task.getValue().handle(DefaultAsyncResult.succeed()));
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 5);
+        cargo.setWeigher(item -> item, 10);
+        context.assertEquals(10, cargo.getMaxWeight());
+        context.assertTrue(cargo.add(Arrays.asList(6, 6, 3, 12, 1), event -> {
+            context.assertTrue(event.succeeded());
+            if (counter.incrementAndGet() == 5) {
+                context.assertEquals(Arrays.asList(1, 2, 1, 1), sizes);
+                async.complete();
+            }
+        }, false));
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeConcurrentBatches(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            context.assertTrue(tasks.size() <= 2);
+            peak.set(Math.max(peak.get(), running.incrementAndGet()));
+            rule.vertx().setTimer(20, id -> {
+                running.decrementAndGet();
+                tasks.stream().forEach(task -> task.getValue().handle(DefaultAsyncResult.succeed()));
+                handler.handle(DefaultAsyncResult.succeed());
+            });
+        }, 3, 2);
+        context.assertEquals(3, cargo.getConcurrency());
+        context.assertEquals(2, cargo.getPayload());
+        context.assertTrue(cargo.add(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), event -> {
+            context.assertTrue(event.succeeded());
+            if (counter.incrementAndGet() == 8) {
+                context.assertEquals(3, peak.get());
+                async.complete();
+            }
+        }, false));
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeManagedBatchSucceed(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            rule.vertx().setTimer(10, id -> handler.handle(DefaultAsyncResult.succeed()));
+        }, 5);
+        cargo.setManaged(true);
+        context.assertTrue(cargo.isManaged());
+        context.assertTrue(cargo.add(Arrays.asList(1, 2, 3), event -> {
+            context.assertTrue(event.succeeded());
+            if (counter.incrementAndGet() == 3) {
+                async.complete();
+            }
+        }, false));
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeManagedBatchPartialFailure(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            handler.handle(DefaultAsyncResult.fail(new BatchFailureException(Collections.singletonMap(1, new IllegalStateException()))));
+        }, 5);
+        cargo.setManaged(true);
+        context.assertTrue(cargo.add(Arrays.asList(1, 2, 3), event -> {
+            if (event.succeeded()) {
+                succeeded.incrementAndGet();
+            } else {
+                context.assertTrue(event.cause() instanceof IllegalStateException);
+                failed.incrementAndGet();
+            }
+            if (succeeded.get() + failed.get() == 3) {
+                context.assertEquals(2, succeeded.get());
+                context.assertEquals(1, failed.get());
+                async.complete();
+            }
+        }, false));
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAddFromForeignThread(final TestContext context) {
+        final Async async = context.async();
+        final Context owner = rule.vertx().getOrCreateContext();
+        final AtomicInteger counter = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>(owner, (tasks, handler) -> {
+            context.assertEquals(owner, Vertx.currentContext());
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 1, 5);
+        cargo.setManaged(true);
+        new Thread(() -> {
+            context.assertTrue(cargo.add(Arrays.asList(1, 2, 3), event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == 3) {
+                    async.complete();
+                }
+            }, false));
+        }).start();
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeMetrics(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            handler.handle(DefaultAsyncResult.fail(new BatchFailureException(Collections.singletonMap(0, new IllegalStateException()))));
+        }, 5);
+        cargo.setManaged(true);
+        context.assertTrue(cargo.add(Arrays.asList(1, 2, 3), event -> {
+            if (counter.incrementAndGet() == 3) {
+                final AsyncWorkerMetrics metrics = cargo.getMetrics();
+                context.assertEquals(3L, metrics.getEnqueued());
+                context.assertEquals(3L, metrics.getStarted());
+                context.assertEquals(2L, metrics.getCompleted());
+                context.assertEquals(1L, metrics.getFailed());
+                context.assertEquals(0L, metrics.getDepth());
+                context.assertEquals(3L, metrics.getWaitTime().getCount());
+                context.assertEquals(1L, metrics.getServiceTime().getCount());
+                async.complete();
+            }
+        }, false));
+        // Added from the context of the cargo, the batch ran inline
+        context.assertEquals(0L, cargo.getMetrics().getDepth());
+    }
+
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeManagedBatchFailure(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        cargo = new AsyncCargoImpl<>((tasks, handler) -> {
+            handler.handle(DefaultAsyncResult.fail(new IllegalArgumentException()));
+        }, 5);
+        cargo.setManaged(true);
+        context.assertTrue(cargo.add(Arrays.asList(1, 2), event -> {
+            context.assertTrue(event.failed());
+            context.assertTrue(event.cause() instanceof IllegalArgumentException);
+            if (counter.incrementAndGet() == 2) {
+                async.complete();
+            }
+        }, false));
+    }
+
     @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
     @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
     public void executeOneTaskFailedInCargo(final TestContext context) {
@@ -244,4 +502,23 @@ public final class AsyncCargoImplTest {
         }, false));
     }
 
+    @Test(timeout = AsyncCargoImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCargoImplTest.REPEAT_LIMIT, silent = true)
+    public void executeSynchronousBatchesInline(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final List<Integer> items = Collections.nCopies(10000, 0);
+        cargo = new AsyncCargoImpl<>(Vertx.currentContext(), (tasks, handler) -> {
+            counter.addAndGet(tasks.size());
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 1, 1);
+        context.assertTrue(cargo.add(items, null, false));
+        // Runs after the drain loop, every batch is already done
+        Vertx.currentContext().runOnContext(event -> {
+            context.assertEquals(items.size(), counter.get());
+            context.assertTrue(cargo.isIdle());
+            async.complete();
+        });
+    }
+
 }
@@ -16,6 +16,7 @@
 package io.zatarox.vertx.async.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -27,15 +28,20 @@ import io.zatarox.vertx.async.api.AsyncCollections;
 import io.zatarox.vertx.async.api.Pair;
 import io.zatarox.vertx.async.fakes.FakeAsyncFunction;
 import io.zatarox.vertx.async.fakes.FakeFailingAsyncFunction;
+import io.zatarox.vertx.async.fakes.FakeReadStream;
 import io.zatarox.vertx.async.fakes.FakeSuccessfulAsyncFunction;
+import io.zatarox.vertx.async.fakes.FakeWriteStream;
 import io.zatarox.vertx.async.utils.DefaultAsyncResult;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -1590,4 +1596,482 @@ public final class AsyncCollectionsTest {
             async.complete();
         });
     }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachStreamPausesAtLimit(final TestContext context) {
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+        final FakeReadStream<Integer> stream = new FakeReadStream<>(rule.vertx().getOrCreateContext(), items);
+        final AtomicInteger inFlight = new AtomicInteger(0);
+        final AtomicInteger maxInFlight = new AtomicInteger(0);
+        final AtomicInteger counter = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.eachStream(stream, 4, (item, handler) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            rule.vertx().runOnContext(event -> {
+                inFlight.decrementAndGet();
+                counter.incrementAndGet();
+                handler.handle(DefaultAsyncResult.succeed());
+            });
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(100, counter.get());
+            context.assertEquals(4, maxInFlight.get());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachStreamStillExecutesWhenThereAreNoItems(final TestContext context) {
+        final FakeReadStream<Integer> stream = new FakeReadStream<>(rule.vertx().getOrCreateContext(), Arrays.asList());
+        final FakeSuccessfulAsyncFunction<Integer, Void> each = new FakeSuccessfulAsyncFunction<>(null);
+        final Async async = context.async();
+
+        instance.eachStream(stream, 4, each, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(0, each.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachStreamFailsAndPausesSource(final TestContext context) {
+        final FakeReadStream<Integer> stream = new FakeReadStream<>(rule.vertx().getOrCreateContext(), Arrays.asList(1, 2, 3, 4, 5, 6));
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.eachStream(stream, 2, (item, handler) -> {
+            rule.vertx().runOnContext(event -> {
+                handler.handle(item == 3 ? DefaultAsyncResult.fail(new IllegalArgumentException()) : DefaultAsyncResult.succeed());
+            });
+        }, result -> {
+            context.assertEquals(1, handlerCallCount.incrementAndGet());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            context.assertTrue(stream.isPaused());
+            rule.vertx().setTimer(50, event -> async.complete());
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void mapStreamWritesInOrderAndHonoursDrain(final TestContext context) {
+        final List<Integer> items = new ArrayList<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+            expected.add(i * 2);
+        }
+        final FakeReadStream<Integer> stream = new FakeReadStream<>(rule.vertx().getOrCreateContext(), items);
+        final FakeWriteStream<Integer> output = new FakeWriteStream<>(rule.vertx().getOrCreateContext(), 3);
+        final AtomicInteger inFlight = new AtomicInteger(0);
+        final AtomicInteger maxInFlight = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.mapStream(stream, 8, (item, handler) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            // Odd items complete later than the next even one
+            rule.vertx().runOnContext(event -> {
+                if (item % 2 == 0) {
+                    inFlight.decrementAndGet();
+                    handler.handle(DefaultAsyncResult.succeed(item * 2));
+                } else {
+                    rule.vertx().runOnContext(again -> {
+                        inFlight.decrementAndGet();
+                        handler.handle(DefaultAsyncResult.succeed(item * 2));
+                    });
+                }
+            });
+        }, output, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(expected, output.written());
+            context.assertTrue(maxInFlight.get() <= 8);
+            context.assertTrue(output.maxBuffered() <= 3);
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void mapStreamUnhandledException(final TestContext context) {
+        final FakeReadStream<Integer> stream = new FakeReadStream<>(rule.vertx().getOrCreateContext(), Arrays.asList(1, 2, 3));
+        final FakeWriteStream<Integer> output = new FakeWriteStream<>(rule.vertx().getOrCreateContext(), 3);
+        final Async async = context.async();
+
+        instance.<Integer, Integer>mapStream(stream, 2, (item, handler) -> {
+            throw new IllegalStateException();
+        }, output, result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalStateException);
+            context.assertTrue(output.written().isEmpty());
+            async.complete();
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eachStreamRejectsNonPositiveLimit() {
+        instance.eachStream(new FakeReadStream<>(rule.vertx().getOrCreateContext(), Arrays.asList(1)), 0, new FakeSuccessfulAsyncFunction<Integer, Void>(null), result -> {
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachIteratorPullsOnlyWhenASlotIsFree(final TestContext context) {
+        final AtomicInteger pulled = new AtomicInteger(0);
+        final AtomicInteger completed = new AtomicInteger(0);
+        final Iterator<Integer> iterator = IntStream.range(0, 100).peek(i -> pulled.incrementAndGet()).iterator();
+        final Async async = context.async();
+
+        instance.each(iterator, 3, (item, handler) -> {
+            context.assertTrue(pulled.get() <= completed.get() + 3);
+            rule.vertx().runOnContext(event -> {
+                completed.incrementAndGet();
+                handler.handle(DefaultAsyncResult.succeed());
+            });
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(100, completed.get());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachIteratorSynchronousConsumer(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Void> each = new FakeSuccessfulAsyncFunction<>(null);
+        final Async async = context.async();
+
+        instance.each(IntStream.range(0, 100000).iterator(), 2, each, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(100000, each.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachIteratorStopsPullingOnFailure(final TestContext context) {
+        final Iterator<Integer> iterator = IntStream.range(0, 100).iterator();
+        final FakeFailingAsyncFunction<Integer, Void> each = new FakeFailingAsyncFunction<>(new IllegalArgumentException());
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.each(iterator, 1, each, result -> {
+            context.assertEquals(1, handlerCallCount.incrementAndGet());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            context.assertEquals(1, each.runCount());
+            context.assertEquals(1, iterator.next());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachIteratorStillExecutesWhenThereAreNoItems(final TestContext context) {
+        final FakeFailingAsyncFunction<Integer, Void> each = new FakeFailingAsyncFunction<>(new RuntimeException("Failed"));
+        final Async async = context.async();
+
+        instance.each(Collections.<Integer>emptyIterator(), 2, each, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(0, each.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void detectIteratorStopsPullingWhenFound(final TestContext context) {
+        final Iterator<Integer> iterator = IntStream.range(0, 100).iterator();
+        final Async async = context.async();
+
+        instance.detect(iterator, 1, (item, handler) -> {
+            rule.vertx().runOnContext(event -> {
+                handler.handle(DefaultAsyncResult.succeed(item == 10));
+            });
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(10, result.result());
+            context.assertEquals(11, iterator.next());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void detectIteratorNoneFound(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Boolean> detect = new FakeSuccessfulAsyncFunction<>(false);
+        final Async async = context.async();
+
+        instance.detect(IntStream.range(0, 10).iterator(), 4, detect, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertNull(result.result());
+            context.assertEquals(10, detect.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eachIteratorRejectsNonPositiveLimit() {
+        instance.each(Collections.<Integer>emptyIterator(), 0, new FakeSuccessfulAsyncFunction<Integer, Void>(null), result -> {
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void mapEmitsEachResultAsSoonAsItCompletes(final TestContext context) {
+        final List<Integer> items = Arrays.asList(1, 2, 3);
+        final Map<Integer, Integer> emitted = new HashMap<>();
+        final List<Handler<AsyncResult<Integer>>> slowest = new ArrayList<>();
+        final Async async = context.async();
+
+        instance.<Integer, Integer>map(items, (item, handler) -> {
+            if (item == 1) {
+                slowest.add(handler);
+            } else {
+                handler.handle(DefaultAsyncResult.succeed(item * 10));
+                if (emitted.size() == 2) {
+                    // Others are emitted while the first item is still pending
+                    context.assertFalse(slowest.isEmpty());
+                    slowest.get(0).handle(DefaultAsyncResult.succeed(10));
+                }
+            }
+        }, emitted::put, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(3, emitted.size());
+            context.assertEquals(10, emitted.get(0));
+            context.assertEquals(20, emitted.get(1));
+            context.assertEquals(30, emitted.get(2));
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void mapEmitterStillExecutesWhenThereAreNoItems(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Integer> map = new FakeSuccessfulAsyncFunction<>(0);
+        final Async async = context.async();
+
+        instance.map(Arrays.asList(), map, (index, value) -> context.fail(), result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(0, map.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void mapEmitterFailsOnce(final TestContext context) {
+        final FakeFailingAsyncFunction<Integer, Integer> map = new FakeFailingAsyncFunction<>(new IllegalArgumentException());
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.map(Arrays.asList(1, 2, 3), map, (index, value) -> context.fail(), result -> {
+            context.assertEquals(1, handlerCallCount.incrementAndGet());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            rule.vertx().setTimer(50, event -> async.complete());
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void concatEmitsEachResultWithItsIndex(final TestContext context) {
+        final List<Integer> items = Arrays.asList(1, 2, 3);
+        final Map<Integer, Collection<Integer>> emitted = new HashMap<>();
+        final Async async = context.async();
+
+        instance.<Integer, Integer>concat(items, (item, handler) -> {
+            handler.handle(DefaultAsyncResult.succeed(Arrays.asList(item, item)));
+        }, emitted::put, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(3, emitted.size());
+            context.assertEquals(Arrays.asList(2, 2), emitted.get(1));
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachSeriesSynchronousConsumer(final TestContext context) {
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            items.add(i);
+        }
+        final AtomicInteger expected = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.eachSeries(items, (item, handler) -> {
+            context.assertEquals(expected.getAndIncrement(), item);
+            handler.handle(DefaultAsyncResult.succeed());
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(100000, expected.get());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void eachSeriesStopsOnFailure(final TestContext context) {
+        final FakeFailingAsyncFunction<Integer, Void> each = new FakeFailingAsyncFunction<>(new IllegalArgumentException());
+        final Async async = context.async();
+
+        instance.eachSeries(Arrays.asList(1, 2, 3), each, result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            context.assertEquals(1, each.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void mapSeriesRunsOneAtATime(final TestContext context) {
+        final AtomicInteger running = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.<Integer, Integer>mapSeries(Arrays.asList(1, 2, 3), (item, handler) -> {
+            context.assertEquals(1, running.incrementAndGet());
+            rule.vertx().runOnContext(event -> {
+                running.decrementAndGet();
+                handler.handle(DefaultAsyncResult.succeed(item * 2));
+            });
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(Arrays.asList(2, 4, 6), result.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void filterSeriesKeepsOrder(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer>filterSeries(Arrays.asList(5, 2, 4, 1, 6), (item, handler) -> {
+            handler.handle(DefaultAsyncResult.succeed(item % 2 == 0));
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(Arrays.asList(2, 4, 6), result.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void filterSeriesStillExecutesWhenThereAreNoItems(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Boolean> filter = new FakeSuccessfulAsyncFunction<>(true);
+        final Async async = context.async();
+
+        instance.filterSeries(Arrays.<Integer>asList(), filter, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertTrue(result.result().isEmpty());
+            context.assertEquals(0, filter.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void reduceParallelSynchronousMapper(final TestContext context) {
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 1; i <= 10000; i++) {
+            items.add(i);
+        }
+        final Async async = context.async();
+
+        instance.<Integer, Long>reduceParallel(items, 0L, (item, handler) -> {
+            handler.handle(DefaultAsyncResult.succeed((long) item));
+        }, Long::sum, 8, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(50005000L, result.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void reduceParallelKeepsOrder(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer, String>reduceParallel(Arrays.asList(1, 2, 3, 4, 5, 6, 7), "", (item, handler) -> {
+            rule.vertx().setTimer(1 + (7 - item), event -> handler.handle(DefaultAsyncResult.succeed(item.toString())));
+        }, String::concat, 3, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals("1234567", result.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void reduceParallelBlockingCombiner(final TestContext context) {
+        final AtomicInteger onContext = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.<Integer, Integer>reduceParallel(Arrays.asList(1, 2, 3, 4, 5), 0, (item, handler) -> {
+            handler.handle(DefaultAsyncResult.succeed(item));
+        }, (left, right) -> {
+            if (!Context.isOnWorkerThread()) {
+                onContext.incrementAndGet();
+            }
+            return left + right;
+        }, 2, true, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(15, result.result());
+            context.assertEquals(0, onContext.get());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void reduceParallelBlockingKeepsOrder(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer, String>reduceParallel(Arrays.asList(1, 2, 3, 4, 5, 6, 7), "", (item, handler) -> {
+            rule.vertx().setTimer(1 + (7 - item), event -> handler.handle(DefaultAsyncResult.succeed(item.toString())));
+        }, String::concat, 3, true, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals("1234567", result.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void reduceParallelFailsOnce(final TestContext context) {
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.<Integer, Integer>reduceParallel(Arrays.asList(1, 2, 3, 4, 5, 6), 0, (item, handler) -> {
+            handler.handle(item % 2 == 0 ? DefaultAsyncResult.fail(new IllegalArgumentException()) : DefaultAsyncResult.succeed(item));
+        }, Integer::sum, 3, result -> {
+            context.assertEquals(1, handlerCallCount.incrementAndGet());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            rule.vertx().setTimer(10, event -> async.complete());
+        });
+    }
+
+    @Test(timeout = AsyncCollectionsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncCollectionsTest.REPEAT_LIMIT, silent = true)
+    public void reduceParallelStillExecutesWhenThereAreNoItems(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Integer> mapper = new FakeSuccessfulAsyncFunction<>(1);
+        final Async async = context.async();
+
+        instance.reduceParallel(Arrays.<Integer>asList(), 42, mapper, Integer::sum, 4, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(42, result.result());
+            context.assertEquals(0, mapper.runCount());
+            async.complete();
+        });
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.impl.codecs.StringMessageCodec;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncDurableQueueImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    private BiHandler<String, Handler<AsyncResult<Void>>> worker;
+    private Path path;
+    private MappedJournal<String> journal;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp(final TestContext context) throws IOException {
+        worker = (t, u) -> {
+            rule.vertx().setTimer(1, event -> {
+                u.handle(t.startsWith("fail") ? DefaultAsyncResult.fail(new IllegalArgumentException()) : DefaultAsyncResult.succeed());
+            });
+        };
+        path = folder.newFolder().toPath().resolve("journal");
+        journal = new MappedJournal<>(path, 1024, new StringMessageCodec());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test(timeout = AsyncDurableQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncDurableQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAcknowledged(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncDurableQueueImpl<String> queue = new AsyncDurableQueueImpl<>(rule.vertx().getOrCreateContext(), worker, 2, journal, null);
+        for (final String task : new String[]{"a", "fail", "b"}) {
+            context.assertTrue(queue.add(task, event -> {
+                context.assertEquals(task.equals("fail"), event.failed());
+                if (counter.incrementAndGet() == 3) {
+                    context.assertEquals(0, journal.size());
+                    async.complete();
+                }
+            }, false));
+        }
+        context.assertEquals(3, journal.size());
+    }
+
+    @Test(timeout = AsyncDurableQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncDurableQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeReplay(final TestContext context) throws IOException {
+        final Async async = context.async();
+        final List<String> processed = new CopyOnWriteArrayList<>();
+        journal.append("a");
+        journal.ack(journal.append("b"));
+        journal.append("c");
+        journal.close();
+        journal = new MappedJournal<>(path, 1024, new StringMessageCodec());
+        final AsyncDurableQueueImpl<String> queue = new AsyncDurableQueueImpl<>(rule.vertx().getOrCreateContext(), (t, u) -> {
+            processed.add(t);
+            u.handle(DefaultAsyncResult.succeed());
+        }, 1, journal, event -> {
+            context.assertTrue(event.succeeded());
+            if (processed.size() == 2) {
+                context.assertEquals("a", processed.get(0));
+                context.assertEquals("c", processed.get(1));
+                context.assertEquals(0, journal.size());
+                async.complete();
+            }
+        });
+        context.assertEquals(2L, queue.getMetrics().getEnqueued());
+    }
+
+    @Test(timeout = AsyncDurableQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncDurableQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeClear(final TestContext context) {
+        final Async async = context.async();
+        final AsyncDurableQueueImpl<String> queue = new AsyncDurableQueueImpl<>(rule.vertx().getOrCreateContext(), worker, 1, journal, null);
+        queue.setPaused(true);
+        context.assertTrue(queue.add("a", event -> context.fail(), false));
+        context.assertTrue(queue.add("b", event -> context.fail(), false));
+        context.assertEquals(2, journal.size());
+        queue.clear();
+        context.assertEquals(0, journal.size());
+        context.assertTrue(queue.isIdle());
+        queue.sync(event -> {
+            context.assertTrue(event.succeeded());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncDurableQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncDurableQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeCompaction(final TestContext context) throws IOException {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        journal.close();
+        journal = new MappedJournal<>(path, 64, new StringMessageCodec());
+        final AsyncDurableQueueImpl<String> queue = new AsyncDurableQueueImpl<>(rule.vertx().getOrCreateContext(), worker, 2, journal, null);
+        for (int i = 0; i < 50; i++) {
+            context.assertTrue(queue.add("task" + i, event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == 50) {
+                    context.assertTrue(journal.getCapacity() > 64);
+                    async.complete();
+                }
+            }, false));
+        }
+    }
+
+    @Test(timeout = AsyncDurableQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncDurableQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeClose(final TestContext context) throws IOException {
+        final Async async = context.async();
+        final AsyncDurableQueueImpl<String> queue = new AsyncDurableQueueImpl<>(rule.vertx().getOrCreateContext(), worker, 1, journal, null);
+        queue.setPaused(true);
+        context.assertTrue(queue.add("a", null, false));
+        queue.close(event -> {
+            context.assertTrue(event.succeeded());
+            context.assertFalse(queue.add("b", result -> {
+                context.assertTrue(result.failed());
+                context.assertTrue(result.cause() instanceof IllegalStateException);
+                async.complete();
+            }, false));
+        });
+    }
+
+}
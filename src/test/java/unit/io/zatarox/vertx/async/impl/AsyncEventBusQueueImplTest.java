@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncEventBusQueueImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    private String address;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+
+    @Before
+    public void setUp() {
+        address = "queue." + UUID.randomUUID();
+    }
+
+    private AsyncEventBusConsumerImpl<Integer> consumer(final AtomicInteger running, final AtomicInteger highest, final int concurrency) {
+        return new AsyncEventBusConsumerImpl<>(rule.vertx().getOrCreateContext(), address, (t, u) -> {
+            highest.accumulateAndGet(running.incrementAndGet(), Math::max);
+            rule.vertx().setTimer(t, event -> {
+                running.decrementAndGet();
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        }, concurrency);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeConcurrency() {
+        new AsyncEventBusConsumerImpl<Integer>(rule.vertx().getOrCreateContext(), address, (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, 0);
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncEventBusQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeTasks(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger highest = new AtomicInteger();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+        consumer(running, highest, 2);
+        for (int i = 0; i < 10; i++) {
+            context.assertTrue(queue.add(5, event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == 10) {
+                    context.assertEquals(2, highest.get());
+                    context.assertEquals(10L, queue.getMetrics().getCompleted());
+                    async.complete();
+                }
+            }, false));
+        }
+        context.assertFalse(queue.isIdle());
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncEventBusQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeFailure(final TestContext context) {
+        final Async async = context.async();
+        final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+        new AsyncEventBusConsumerImpl<Integer>(rule.vertx().getOrCreateContext(), address, (t, u) -> {
+            u.handle(DefaultAsyncResult.fail(new IllegalArgumentException("Task " + t)));
+        }, 1);
+        context.assertTrue(queue.add(1, event -> {
+            context.assertTrue(event.failed());
+            context.assertTrue(event.cause() instanceof ReplyException);
+            context.assertEquals("Task 1", event.cause().getMessage());
+            async.complete();
+        }, false));
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncEventBusQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeSeveralConsumers(final TestContext context) {
+        final Async async = context.async();
+        final Set<Integer> used = ConcurrentHashMap.newKeySet();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+        for (int i = 0; i < 2; i++) {
+            final int id = i;
+            new AsyncEventBusConsumerImpl<Integer>(rule.vertx().getOrCreateContext(), address, (t, u) -> {
+                used.add(id);
+                rule.vertx().setTimer(t, event -> {
+                    u.handle(DefaultAsyncResult.succeed());
+                });
+            }, 1);
+        }
+        // Wait for both consumers to be registered
+        rule.vertx().setTimer(50, timer -> {
+            for (int i = 0; i < 4; i++) {
+                context.assertTrue(queue.add(20, event -> {
+                    context.assertTrue(event.succeeded());
+                    if (counter.incrementAndGet() == 4) {
+                        context.assertEquals(2, used.size());
+                        async.complete();
+                    }
+                }, false));
+            }
+        });
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncEventBusQueueImplTest.REPEAT_LIMIT / 10, silent = true)
+    public void executeIdleProducers(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            new AsyncEventBusQueueImpl<Integer>(rule.vertx().getOrCreateContext(), address, null);
+        }
+        final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+        consumer(new AtomicInteger(), new AtomicInteger(), 1);
+        rule.vertx().setTimer(50, timer -> {
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < 10; i++) {
+                context.assertTrue(queue.add(1, event -> {
+                    context.assertTrue(event.succeeded());
+                    if (counter.incrementAndGet() == 10) {
+                        // Idle producers never hold the credit of the consumer
+                        context.assertTrue(System.currentTimeMillis() - start < AsyncEventBusQueueImpl.RETRY_DELAY * 3);
+                        async.complete();
+                    }
+                }, false));
+            }
+        });
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncEventBusQueueImplTest.REPEAT_LIMIT / 10, silent = true)
+    public void executeConsumerBeforeQueue(final TestContext context) {
+        final Async async = context.async();
+        consumer(new AtomicInteger(), new AtomicInteger(), 1);
+        rule.vertx().setTimer(AsyncEventBusQueueImpl.RETRY_DELAY / 2, timer -> {
+            final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+            context.assertTrue(queue.add(1, event -> {
+                context.assertTrue(event.succeeded());
+                async.complete();
+            }, false));
+        });
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncEventBusQueueImplTest.REPEAT_LIMIT / 10, silent = true)
+    public void executeConsumerGone(final TestContext context) {
+        final Async async = context.async();
+        final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+        final AsyncEventBusConsumerImpl<Integer> gone = new AsyncEventBusConsumerImpl<>(rule.vertx().getOrCreateContext(), address, (t, u) -> {
+            context.fail();
+        }, 3);
+        rule.vertx().setTimer(50, timer -> {
+            gone.close(closed -> {
+                context.assertTrue(queue.add(1, event -> {
+                    context.assertTrue(event.succeeded());
+                    context.assertEquals(1L, queue.getMetrics().getEnqueued());
+                    context.assertEquals(0L, queue.getMetrics().getDepth());
+                    async.complete();
+                }, false));
+                rule.vertx().setTimer(20, event -> {
+                    consumer(new AtomicInteger(), new AtomicInteger(), 1);
+                });
+            });
+        });
+    }
+
+    @Test(timeout = AsyncEventBusQueueImplTest.TIMEOUT_LIMIT * 3)
+    public void executeConsumerGoneWithTask(final TestContext context) {
+        final Async async = context.async();
+        final AsyncEventBusQueueImpl<Integer> queue = new AsyncEventBusQueueImpl<>(rule.vertx().getOrCreateContext(), address, null);
+        final AtomicInteger received = new AtomicInteger();
+        final AsyncEventBusConsumerImpl<Integer>[] gone = new AsyncEventBusConsumerImpl[1];
+        gone[0] = new AsyncEventBusConsumerImpl<>(rule.vertx().getOrCreateContext(), address, (t, u) -> {
+            // Dies with the task, no reply ever comes
+            received.incrementAndGet();
+            gone[0].close(closed -> {
+                context.assertTrue(closed.succeeded());
+            });
+        }, 1);
+        final long start = System.currentTimeMillis();
+        context.assertTrue(queue.add(1, event -> {
+            context.assertTrue(event.failed());
+            context.assertTrue(event.cause() instanceof IllegalStateException);
+            context.assertEquals(1, received.get());
+            context.assertTrue(System.currentTimeMillis() - start >= AsyncEventBusQueueImpl.PROBE_DELAY);
+            context.assertEquals(1L, queue.getMetrics().getFailed());
+            context.assertTrue(queue.isIdle());
+            async.complete();
+        }, false));
+    }
+
+}
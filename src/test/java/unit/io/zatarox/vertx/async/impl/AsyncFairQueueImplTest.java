@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncFairQueueImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    private List<String> executed;
+    private BiHandler<String, Handler<AsyncResult<Void>>> worker;
+    private AsyncFairQueueImpl<String, Character> queue;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+    @Rule
+    public MockitoRule mockito = MockitoJUnit.rule();
+
+    @Before
+    public void setUp(final TestContext context) {
+        executed = new CopyOnWriteArrayList<>();
+        worker = (t, u) -> {
+            executed.add(t);
+            rule.vertx().runOnContext(event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        };
+        queue = new AsyncFairQueueImpl<>(rule.vertx().getOrCreateContext(), worker, t -> t.charAt(0), 1);
+        context.assertNotNull(queue);
+        context.assertEquals(0, queue.getRunning());
+        context.assertEquals(1, queue.getConcurrency());
+    }
+
+    private void addAll(final TestContext context, final List<String> tasks, final Handler<AsyncResult<Void>> handler) {
+        tasks.stream().forEach(task -> {
+            context.assertTrue(queue.add(task, handler, false));
+        });
+    }
+
+    @Test(timeout = AsyncFairQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFairQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeEmptyQueue(final TestContext context) {
+        context.assertTrue(queue.isIdle());
+        rule.vertx().runOnContext(queue);
+        context.assertEquals(0, queue.getRunning());
+        context.assertEquals(0, queue.getTenants());
+    }
+
+    @Test(timeout = AsyncFairQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFairQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeRoundRobin(final TestContext context) {
+        final Async async = context.async();
+        queue.setPaused(true);
+        addAll(context, Arrays.asList("a1", "a2", "a3", "a4", "b1", "b2", "c1"), event -> {
+            context.assertTrue(event.succeeded());
+            if (executed.size() == 7) {
+                context.assertEquals(Arrays.asList("a1", "b1", "c1", "a2", "b2", "a3", "a4"), executed);
+                context.assertEquals(0, queue.getTenants());
+                async.complete();
+            }
+        });
+        context.assertEquals(3, queue.getTenants());
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncFairQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFairQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeWeightedRoundRobin(final TestContext context) {
+        final Async async = context.async();
+        queue = new AsyncFairQueueImpl<>(rule.vertx().getOrCreateContext(), worker, t -> t.charAt(0), key -> key == 'a' ? 2 : 1, 1);
+        queue.setPaused(true);
+        addAll(context, Arrays.asList("a1", "a2", "a3", "a4", "a5", "b1", "b2"), event -> {
+            context.assertTrue(event.succeeded());
+            if (executed.size() == 7) {
+                context.assertEquals(Arrays.asList("a1", "a2", "b1", "a3", "a4", "b2", "a5"), executed);
+                async.complete();
+            }
+        });
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncFairQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFairQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAddToTopOfTenant(final TestContext context) {
+        final Async async = context.async();
+        final Handler<AsyncResult<Void>> handler = event -> {
+            if (executed.size() == 4) {
+                context.assertEquals(Arrays.asList("a1", "b2", "a2", "b1"), executed);
+                async.complete();
+            }
+        };
+        queue.setPaused(true);
+        addAll(context, Arrays.asList("a1", "b1"), handler);
+        context.assertTrue(queue.add("b2", handler, true));
+        context.assertTrue(queue.add("a2", handler, false));
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncFairQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFairQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeClear(final TestContext context) {
+        final Async async = context.async();
+        queue.setPaused(true);
+        context.assertTrue(queue.add("a1", event -> {
+            context.fail();
+        }, false));
+        context.assertFalse(queue.isIdle());
+        queue.clear();
+        context.assertTrue(queue.isIdle());
+        context.assertEquals(0, queue.getTenants());
+        queue.setPaused(false);
+        context.assertTrue(queue.add("b1", event -> {
+            context.assertTrue(event.succeeded());
+            context.assertEquals(Arrays.asList("b1"), executed);
+            async.complete();
+        }, false));
+    }
+
+}
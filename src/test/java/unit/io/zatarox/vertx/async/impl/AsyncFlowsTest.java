@@ -17,25 +17,41 @@ package io.zatarox.vertx.async.impl;
 
 import io.zatarox.vertx.async.utils.DefaultAsyncResult;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.impl.codecs.StringMessageCodec;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Repeat;
 import io.vertx.ext.unit.junit.RepeatRule;
 import io.vertx.ext.unit.junit.RunTestOnContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.api.AsyncCargo;
+import io.zatarox.vertx.async.api.AsyncDurableQueue;
 import io.zatarox.vertx.async.api.AsyncFlows;
+import io.zatarox.vertx.async.api.AsyncWorker;
 import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.api.KeyedSerialExecutor;
+import io.zatarox.vertx.async.api.Pair;
 import io.zatarox.vertx.async.fakes.FakeAsyncSupplier;
 import io.zatarox.vertx.async.fakes.FakeFailingAsyncFunction;
 import io.zatarox.vertx.async.fakes.FakeFailingAsyncSupplier;
 import io.zatarox.vertx.async.fakes.FakeSuccessfulAsyncFunction;
 import io.zatarox.vertx.async.fakes.FakeSuccessfulAsyncSupplier;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -55,6 +71,8 @@ public final class AsyncFlowsTest {
     public RunTestOnContext rule = new RunTestOnContext();
     @Rule
     public MockitoRule mockito = MockitoJUnit.rule();
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     private AsyncFlows instance;
     
@@ -864,6 +882,138 @@ public final class AsyncFlowsTest {
         }));
     }
 
+    @Test
+    public void createAdaptiveQueue(final TestContext context) {
+        final AsyncWorker queue = instance.<Integer>createAdaptiveQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, 2, 8);
+        context.assertNotNull(queue);
+        context.assertEquals(2, queue.getConcurrency());
+    }
+
+    @Test
+    public void createPriorityQueue(final TestContext context) {
+        context.assertNotNull(instance.<Integer>createPriorityQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, t -> t, 2));
+        context.assertNotNull(instance.<Integer>createPriorityQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, Integer::compare, 2));
+    }
+
+    @Test
+    public void createFairQueue(final TestContext context) {
+        context.assertNotNull(instance.<String, Character>createFairQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, t -> t.charAt(0), 2));
+        context.assertNotNull(instance.<String, Character>createFairQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, t -> t.charAt(0), key -> 2, 2));
+    }
+
+    @Test
+    public void createShardedQueue(final TestContext context) {
+        final List<Context> contexts = Arrays.asList(rule.vertx().getOrCreateContext(), rule.vertx().getOrCreateContext());
+        final AsyncWorker queue = instance.<Integer>createShardedQueue(contexts, (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, 2);
+        context.assertNotNull(queue);
+        context.assertEquals(4, queue.getConcurrency());
+        context.assertNotNull(instance.<Integer, Integer>createShardedQueue(contexts, (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, t -> t % 2, 2));
+        context.assertNotNull(instance.<Integer, Integer>createShardedQueue(contexts, (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, t -> null, 2, true));
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    public void createDurableQueue(final TestContext context) throws IOException {
+        final Async async = context.async();
+        instance.<String>createDurableQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, folder.newFile().getPath(), new StringMessageCodec(), 2, null, result -> {
+            context.assertTrue(result.succeeded());
+            final AsyncDurableQueue<String> queue = result.result();
+            context.assertEquals(2, queue.getConcurrency());
+            context.assertTrue(queue.add("task", event -> {
+                context.assertTrue(event.succeeded());
+                queue.close(closed -> {
+                    context.assertTrue(closed.succeeded());
+                    async.complete();
+                });
+            }, false));
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    public void createDurableQueueWithRecovered(final TestContext context) throws IOException {
+        final Async async = context.async();
+        final String path = folder.newFile().getPath();
+        instance.<String>createDurableQueue((t, u) -> {
+            // Never completes, the task stays in the journal
+        }, path, new StringMessageCodec(), 2, null, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertTrue(result.result().add("task", event -> {
+                context.fail();
+            }, false));
+            result.result().close(closed -> {
+                context.assertTrue(closed.succeeded());
+                instance.<String>createDurableQueue((t, u) -> {
+                    context.assertEquals("task", t);
+                    u.handle(DefaultAsyncResult.fail(new IllegalArgumentException()));
+                }, path, new StringMessageCodec(), 2, event -> {
+                    context.assertTrue(event.failed());
+                    context.assertTrue(event.cause() instanceof IllegalArgumentException);
+                    async.complete();
+                }, reopened -> {
+                    context.assertTrue(reopened.succeeded());
+                });
+            });
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    public void createDurableQueueInMissingFolder(final TestContext context) {
+        final Async async = context.async();
+        instance.<String>createDurableQueue((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, folder.getRoot().getPath() + "/missing/journal", new StringMessageCodec(), 2, null, result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IOException);
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    public void createEventBusQueue(final TestContext context) {
+        final Async async = context.async();
+        final AsyncWorker<String> queue = instance.<String>createEventBusQueue("flows.queue", null);
+        final MessageConsumer<String> consumer = instance.<String>createEventBusConsumer("flows.queue", (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, 2);
+        context.assertNotNull(consumer);
+        context.assertTrue(queue.add("task", event -> {
+            context.assertTrue(event.succeeded());
+            consumer.unregister();
+            async.complete();
+        }, false));
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    public void createKeyedSerialExecutor(final TestContext context) {
+        final Async async = context.async();
+        final KeyedSerialExecutor<String> executor = instance.createKeyedSerialExecutor();
+        context.assertNotNull(executor);
+        executor.<Integer>execute("key", handler -> {
+            handler.handle(DefaultAsyncResult.succeed(1));
+        }, event -> {
+            context.assertTrue(event.succeeded());
+            context.assertEquals(1, event.result());
+            async.complete();
+        });
+    }
+
     @Test
     public void createCargo(final TestContext context) {
         context.assertNotNull(instance.<Integer>createCargo((delay, u) -> {
@@ -873,6 +1023,23 @@ public final class AsyncFlowsTest {
         }));
     }
 
+    @Test
+    public void createConcurrentCargo(final TestContext context) {
+        final AsyncCargo<Integer> cargo = instance.<Integer>createCargo((tasks, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, 2, 10);
+        context.assertNotNull(cargo);
+        context.assertEquals(2, cargo.getConcurrency());
+        cargo.setLinger(TimeUnit.MILLISECONDS, 5);
+        cargo.setMinBatch(4);
+        cargo.setWeigher(task -> task, 100);
+        context.assertEquals(5L, cargo.getLinger());
+        context.assertEquals(4, cargo.getMinBatch());
+        context.assertEquals(100, cargo.getMaxWeight());
+        cargo.setManaged(true);
+        context.assertTrue(cargo.isManaged());
+    }
+
     @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
     @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
     public void eachWithNoFunctions(final TestContext context) {
@@ -1063,4 +1230,240 @@ public final class AsyncFlowsTest {
         });
     }
 
+    private static <T> Pair<Collection<String>, BiHandler<Map<String, T>, Handler<AsyncResult<T>>>> task(final BiHandler<Map<String, T>, Handler<AsyncResult<T>>> task, final String... dependencies) {
+        return new PairImpl<>(Arrays.asList(dependencies), task);
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void autoRunsReadyTasksConcurrently(final TestContext context) {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final BiHandler<Map<String, Integer>, Handler<AsyncResult<Integer>>> leaf = (results, handler) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            rule.vertx().runOnContext(event -> {
+                running.decrementAndGet();
+                handler.handle(DefaultAsyncResult.succeed(1));
+            });
+        };
+        final Map<String, Pair<Collection<String>, BiHandler<Map<String, Integer>, Handler<AsyncResult<Integer>>>>> tasks = new HashMap<>();
+        tasks.put("a", task(leaf));
+        tasks.put("b", task(leaf));
+        tasks.put("c", task((results, handler) -> {
+            context.assertEquals(0, running.get());
+            handler.handle(DefaultAsyncResult.succeed(results.get("a") + results.get("b")));
+        }, "a", "b"));
+        tasks.put("d", task((results, handler) -> {
+            handler.handle(DefaultAsyncResult.succeed(results.get("c") * 10));
+        }, "c"));
+        final Async async = context.async();
+
+        instance.auto(tasks, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(2, maxRunning.get());
+            context.assertEquals(4, result.result().size());
+            context.assertEquals(20, result.result().get("d"));
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void autoWithLimit(final TestContext context) {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final Map<String, Pair<Collection<String>, BiHandler<Map<String, Integer>, Handler<AsyncResult<Integer>>>>> tasks = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.put(Integer.toString(i), task((results, handler) -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                rule.vertx().runOnContext(event -> {
+                    running.decrementAndGet();
+                    handler.handle(DefaultAsyncResult.succeed(0));
+                });
+            }));
+        }
+        final Async async = context.async();
+
+        instance.auto(tasks, 3, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(10, result.result().size());
+            context.assertEquals(3, maxRunning.get());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void autoDetectsCycles(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Map<String, Integer>, Integer> function = new FakeSuccessfulAsyncFunction<>(0);
+        final Map<String, Pair<Collection<String>, BiHandler<Map<String, Integer>, Handler<AsyncResult<Integer>>>>> tasks = new HashMap<>();
+        tasks.put("a", task(function));
+        tasks.put("b", task(function, "a", "d"));
+        tasks.put("c", task(function, "b"));
+        tasks.put("d", task(function, "c"));
+        final Async async = context.async();
+
+        instance.auto(tasks, result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            context.assertEquals(0, function.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void autoDetectsUnknownDependencies(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Map<String, Integer>, Integer> function = new FakeSuccessfulAsyncFunction<>(0);
+        final Map<String, Pair<Collection<String>, BiHandler<Map<String, Integer>, Handler<AsyncResult<Integer>>>>> tasks = new HashMap<>();
+        tasks.put("a", task(function, "z"));
+        final Async async = context.async();
+
+        instance.auto(tasks, result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            context.assertEquals(0, function.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void autoStopsOnFailure(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Map<String, Integer>, Integer> function = new FakeSuccessfulAsyncFunction<>(0);
+        final Map<String, Pair<Collection<String>, BiHandler<Map<String, Integer>, Handler<AsyncResult<Integer>>>>> tasks = new HashMap<>();
+        tasks.put("a", task(new FakeFailingAsyncFunction<>(new IllegalStateException())));
+        tasks.put("b", task(function, "a"));
+        final Async async = context.async();
+
+        instance.auto(tasks, result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalStateException);
+            context.assertEquals(0, function.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void autoStillExecutesWhenThereAreNoTasks(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer>auto(new HashMap<>(), result -> {
+            context.assertTrue(result.succeeded());
+            context.assertTrue(result.result().isEmpty());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void parallelLimitKeepsOrderAndLimit(final TestContext context) {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final List<Handler<Handler<AsyncResult<Integer>>>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int value = i;
+            tasks.add(handler -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                rule.vertx().runOnContext(event -> {
+                    running.decrementAndGet();
+                    handler.handle(DefaultAsyncResult.succeed(value));
+                });
+            });
+        }
+        final Async async = context.async();
+
+        instance.parallelLimit(tasks, 3, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(3, maxRunning.get());
+            context.assertEquals(20, result.result().size());
+            context.assertEquals(19, result.result().get(19));
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void parallelLimitStillExecutesWhenThereAreNoTasks(final TestContext context) {
+        final Async async = context.async();
+
+        instance.parallelLimit(Arrays.<Handler<Handler<AsyncResult<Void>>>>asList(), 2, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertTrue(result.result().isEmpty());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void timesLimitSynchronousConsumer(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Integer> function = new FakeSuccessfulAsyncFunction<>(1);
+        final Async async = context.async();
+
+        instance.timesLimit(100000, 4, function, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(100000, result.result().size());
+            context.assertEquals(100000, function.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void timesLimitStopsOnFailure(final TestContext context) {
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        final FakeFailingAsyncFunction<Integer, Integer> function = new FakeFailingAsyncFunction<>(new IllegalStateException());
+        final Async async = context.async();
+
+        instance.timesLimit(10, 2, function, result -> {
+            context.assertEquals(1, handlerCallCount.incrementAndGet());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalStateException);
+            context.assertEquals(1, function.runCount());
+            async.complete();
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timesLimitRejectsNonPositiveLimit() {
+        instance.timesLimit(1, 0, new FakeSuccessfulAsyncFunction<Integer, Integer>(1), result -> {
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void timesSeriesRunsOneAtATime(final TestContext context) {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger expected = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.<Integer>timesSeries(10, (index, handler) -> {
+            context.assertEquals(1, running.incrementAndGet());
+            context.assertEquals(expected.getAndIncrement(), index);
+            rule.vertx().runOnContext(event -> {
+                running.decrementAndGet();
+                handler.handle(DefaultAsyncResult.succeed(index * 2));
+            });
+        }, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(10, result.result().size());
+            context.assertEquals(18, result.result().get(9));
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFlowsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFlowsTest.REPEAT_LIMIT, silent = true)
+    public void timesSeriesStillExecutesWhenCounterIsZero(final TestContext context) {
+        final FakeSuccessfulAsyncFunction<Integer, Integer> function = new FakeSuccessfulAsyncFunction<>(1);
+        final Async async = context.async();
+
+        instance.timesSeries(0, function, result -> {
+            context.assertTrue(result.succeeded());
+            context.assertTrue(result.result().isEmpty());
+            context.assertEquals(0, function.runCount());
+            async.complete();
+        });
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2004-2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.Future;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.api.AsyncFutures;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncFuturesImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+    private AsyncFutures instance;
+
+    @Before
+    public void setUp() {
+        instance = new AsyncFuturesImpl(rule.vertx().getOrCreateContext());
+    }
+
+    @Test(timeout = AsyncFuturesImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFuturesImplTest.REPEAT_LIMIT, silent = true)
+    public void mapComposes(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer, Integer>map(Arrays.asList(1, 2, 3), item -> Future.succeededFuture(item * 2))
+                .compose(mapped -> instance.<Integer, Integer>reduce(mapped, 0, (item, memo) -> Future.succeededFuture(item + memo)))
+                .setHandler(result -> {
+                    context.assertTrue(result.succeeded());
+                    context.assertEquals(12, result.result());
+                    async.complete();
+                });
+    }
+
+    @Test(timeout = AsyncFuturesImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFuturesImplTest.REPEAT_LIMIT, silent = true)
+    public void eachFails(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer>each(Arrays.asList(1, 2, 3), item -> item == 2 ? Future.failedFuture(new IllegalArgumentException()) : Future.succeededFuture()).setHandler(result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFuturesImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFuturesImplTest.REPEAT_LIMIT, silent = true)
+    public void filterAndDetect(final TestContext context) {
+        final Async async = context.async();
+
+        instance.<Integer>filter(Arrays.asList(1, 2, 3, 4), item -> Future.succeededFuture(item % 2 == 0)).setHandler(filtered -> {
+            context.assertEquals(Arrays.asList(2, 4), filtered.result());
+            instance.<Integer>detect(Arrays.asList(1, 2, 3), item -> Future.succeededFuture(item == 3)).setHandler(detected -> {
+                context.assertEquals(3, detected.result());
+                async.complete();
+            });
+        });
+    }
+
+    @Test(timeout = AsyncFuturesImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFuturesImplTest.REPEAT_LIMIT, silent = true)
+    public void seriesAndParallel(final TestContext context) {
+        final Supplier<Future<Integer>> one = () -> Future.succeededFuture(1);
+        final Supplier<Future<Integer>> two = () -> Future.succeededFuture(2);
+        final Async async = context.async();
+
+        instance.series(Arrays.asList(one, two)).setHandler(series -> {
+            context.assertEquals(Arrays.asList(1, 2), series.result());
+            instance.parallel(Arrays.asList(two, one)).setHandler(parallel -> {
+                context.assertEquals(Arrays.asList(2, 1), parallel.result());
+                async.complete();
+            });
+        });
+    }
+
+    @Test(timeout = AsyncFuturesImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFuturesImplTest.REPEAT_LIMIT, silent = true)
+    public void whilstAndTimes(final TestContext context) {
+        final AtomicInteger counter = new AtomicInteger(0);
+        final Async async = context.async();
+
+        instance.whilst(() -> counter.get() < 5, () -> {
+            counter.incrementAndGet();
+            return Future.succeededFuture();
+        }).compose(done -> instance.<Integer>times(counter.get(), index -> Future.succeededFuture(index))).setHandler(result -> {
+            context.assertEquals(Arrays.asList(0, 1, 2, 3, 4), result.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncFuturesImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncFuturesImplTest.REPEAT_LIMIT, silent = true)
+    public void timeoutReached(final TestContext context) {
+        final Async async = context.async();
+
+        instance.timeout(Future::<Void>future, TimeUnit.MILLISECONDS, 10).setHandler(result -> {
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof TimeoutException);
+            async.complete();
+        });
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncPriorityQueueImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    private List<Integer> executed;
+    private BiHandler<Integer, Handler<AsyncResult<Void>>> worker;
+    private AsyncPriorityQueueImpl<Integer> queue;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+    @Rule
+    public MockitoRule mockito = MockitoJUnit.rule();
+
+    @Before
+    public void setUp(final TestContext context) {
+        executed = new CopyOnWriteArrayList<>();
+        worker = (t, u) -> {
+            executed.add(t);
+            rule.vertx().runOnContext(event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        };
+        queue = new AsyncPriorityQueueImpl<>(rule.vertx().getOrCreateContext(), worker, t -> t / 10, 1);
+        context.assertNotNull(queue);
+        context.assertEquals(0, queue.getRunning());
+        context.assertEquals(1, queue.getConcurrency());
+    }
+
+    @Test(timeout = AsyncPriorityQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncPriorityQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeEmptyQueue(final TestContext context) {
+        context.assertTrue(queue.isIdle());
+        rule.vertx().runOnContext(queue);
+        context.assertEquals(0, queue.getRunning());
+    }
+
+    @Test(timeout = AsyncPriorityQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncPriorityQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeByPriorityLevels(final TestContext context) {
+        final Async async = context.async();
+        queue.setPaused(true);
+        for (final int item : Arrays.asList(21, 1, 22, 11, 2, 12)) {
+            context.assertTrue(queue.add(item, event -> {
+                context.assertTrue(event.succeeded());
+                if (executed.size() == 6) {
+                    context.assertEquals(Arrays.asList(1, 2, 11, 12, 21, 22), executed);
+                    async.complete();
+                }
+            }, false));
+        }
+        context.assertFalse(queue.isIdle());
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncPriorityQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncPriorityQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeByComparator(final TestContext context) {
+        final Async async = context.async();
+        queue = new AsyncPriorityQueueImpl<>(rule.vertx().getOrCreateContext(), worker, Comparator.<Integer>reverseOrder(), 1);
+        queue.setPaused(true);
+        for (final int item : Arrays.asList(3, 1, 4, 1, 5)) {
+            context.assertTrue(queue.add(item, event -> {
+                context.assertTrue(event.succeeded());
+                if (executed.size() == 5) {
+                    context.assertEquals(Arrays.asList(5, 4, 3, 1, 1), executed);
+                    async.complete();
+                }
+            }, false));
+        }
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncPriorityQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncPriorityQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAddToTopOfPriority(final TestContext context) {
+        final Async async = context.async();
+        queue.setPaused(true);
+        context.assertTrue(queue.add(11, event -> {
+        }, false));
+        context.assertTrue(queue.add(12, event -> {
+        }, true));
+        context.assertTrue(queue.add(1, event -> {
+        }, false));
+        context.assertTrue(queue.add(13, event -> {
+            context.assertEquals(Arrays.asList(1, 12, 11, 13), executed);
+            async.complete();
+        }, false));
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncPriorityQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncPriorityQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeClear(final TestContext context) {
+        final Async async = context.async();
+        queue.setPaused(true);
+        context.assertTrue(queue.add(1, event -> {
+            context.fail();
+        }, false));
+        context.assertFalse(queue.isIdle());
+        queue.clear();
+        context.assertTrue(queue.isIdle());
+        queue.setPaused(false);
+        context.assertTrue(queue.add(2, event -> {
+            context.assertTrue(event.succeeded());
+            context.assertEquals(Arrays.asList(2), executed);
+            async.complete();
+        }, false));
+    }
+
+}
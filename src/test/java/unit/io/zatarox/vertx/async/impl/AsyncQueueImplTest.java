@@ -16,7 +16,9 @@
 package io.zatarox.vertx.async.impl;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Repeat;
@@ -32,6 +34,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import io.zatarox.vertx.async.api.AsyncWorkerListener;
 import io.zatarox.vertx.async.api.AsyncWorker;
+import io.zatarox.vertx.async.api.AsyncWorkerMetrics;
 import io.zatarox.vertx.async.api.BiHandler;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -237,4 +240,82 @@ public final class AsyncQueueImplTest {
         }, false));
     }
 
+    @Test(timeout = AsyncQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAddFromForeignThread(final TestContext context) {
+        final Async async = context.async();
+        final Context owner = rule.vertx().getOrCreateContext();
+        final AtomicInteger counter = new AtomicInteger();
+        queue = new AsyncQueueImpl<>(owner, (t, u) -> {
+            context.assertEquals(owner, Vertx.currentContext());
+            u.handle(DefaultAsyncResult.succeed());
+        }, 2);
+        new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                context.assertTrue(queue.add(i, event -> {
+                    context.assertTrue(event.succeeded());
+                    if (counter.incrementAndGet() == 10) {
+                        async.complete();
+                    }
+                }, false));
+            }
+        }).start();
+    }
+
+    @Test(timeout = AsyncQueueImplTest.TIMEOUT_LIMIT)
+    public void executeSynchronousWorker(final TestContext context) {
+        final Async async = context.async();
+        final int count = 100000;
+        final AtomicInteger counter = new AtomicInteger();
+        queue = new AsyncQueueImpl<>((t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, 1000);
+        for (int i = 0; i < count; i++) {
+            context.assertTrue(queue.add(i, event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == count) {
+                    async.complete();
+                }
+            }, false));
+        }
+        context.assertEquals(0, counter.get());
+    }
+
+    @Test(timeout = AsyncQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeMetrics(final TestContext context) {
+        final Async async = context.async();
+        queue = new AsyncQueueImpl<>((t, u) -> {
+            rule.vertx().setTimer(t, event -> {
+                u.handle(t == 2 ? DefaultAsyncResult.fail(new IllegalArgumentException()) : DefaultAsyncResult.succeed());
+            });
+        }, 1);
+        queue.setPaused(true);
+        context.assertTrue(queue.add(1, event -> context.fail(), false));
+        queue.clear();
+        context.assertTrue(queue.add(1, event -> {
+            context.assertTrue(event.succeeded());
+        }, false));
+        context.assertTrue(queue.add(2, event -> {
+            context.assertTrue(event.failed());
+            final AsyncWorkerMetrics metrics = queue.getMetrics();
+            context.assertEquals(3L, metrics.getEnqueued());
+            context.assertEquals(2L, metrics.getStarted());
+            context.assertEquals(1L, metrics.getCompleted());
+            context.assertEquals(1L, metrics.getFailed());
+            context.assertEquals(0L, metrics.getDepth());
+            context.assertEquals(2L, metrics.getWaitTime().getCount());
+            context.assertEquals(2L, metrics.getServiceTime().getCount());
+            context.assertTrue(metrics.getServiceTime().getMax() >= 1000000L);
+            context.assertTrue(metrics.getWaitTime().getMax() >= 1000000L);
+            async.complete();
+        }, false));
+        final AsyncWorkerMetrics metrics = queue.getMetrics();
+        context.assertEquals(3L, metrics.getEnqueued());
+        context.assertEquals(0L, metrics.getStarted());
+        context.assertEquals(2L, metrics.getDepth());
+        context.assertEquals(1, metrics.getConcurrency());
+        queue.setPaused(false);
+    }
+
 }
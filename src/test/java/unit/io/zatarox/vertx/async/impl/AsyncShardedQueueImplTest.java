@@ -0,0 +1,323 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.api.AsyncWorker;
+import io.zatarox.vertx.async.api.AsyncWorkerListener;
+import io.zatarox.vertx.async.api.AsyncWorkerMetrics;
+import io.zatarox.vertx.async.api.BiHandler;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncShardedQueueImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    private List<Context> contexts;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+
+    @Before
+    public void setUp(final TestContext context) throws InterruptedException {
+        // Outside of Vert.x threads, each call creates a new context
+        final List<Context> result = new ArrayList<>();
+        final Thread thread = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                result.add(rule.vertx().getOrCreateContext());
+            }
+        });
+        thread.start();
+        thread.join();
+        contexts = result;
+        context.assertEquals(3, contexts.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoContext() {
+        new AsyncShardedQueueImpl<Integer>(Collections.emptyList(), (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, null, 1);
+    }
+
+    @Test
+    public void testConcurrency(final TestContext context) {
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            u.handle(DefaultAsyncResult.succeed());
+        }, null, 2);
+        context.assertEquals(6, queue.getConcurrency());
+        queue.setConcurrency(7);
+        context.assertEquals(7, queue.getConcurrency());
+        context.assertEquals(3, queue.getShards().get(0).getConcurrency());
+        context.assertEquals(2, queue.getShards().get(2).getConcurrency());
+        queue.setConcurrency(1);
+        context.assertEquals(3, queue.getConcurrency());
+        context.assertTrue(queue.isIdle());
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeKeyedTasks(final TestContext context) {
+        final Async async = context.async();
+        final Map<Integer, List<Integer>> order = new ConcurrentHashMap<>();
+        final Map<Integer, Context> owners = new ConcurrentHashMap<>();
+        final AtomicInteger counter = new AtomicInteger();
+        final BiHandler<Integer, Handler<AsyncResult<Void>>> worker = (t, u) -> {
+            context.assertEquals(owners.computeIfAbsent(t % 4, key -> Vertx.currentContext()), Vertx.currentContext());
+            order.computeIfAbsent(t % 4, key -> new CopyOnWriteArrayList<>()).add(t);
+            u.handle(DefaultAsyncResult.succeed());
+        };
+        final AsyncWorker<Integer> queue = new AsyncShardedQueueImpl<>(contexts, worker, t -> t % 4, 1);
+        for (int i = 0; i < 40; i++) {
+            context.assertTrue(queue.add(i, event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == 40) {
+                    order.values().stream().forEach(values -> {
+                        for (int j = 1; j < values.size(); j++) {
+                            context.assertTrue(values.get(j - 1) < values.get(j));
+                        }
+                    });
+                    async.complete();
+                }
+            }, false));
+        }
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeLeastLoaded(final TestContext context) {
+        final Async async = context.async();
+        final Set<Context> used = ConcurrentHashMap.newKeySet();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            used.add(Vertx.currentContext());
+            Vertx.currentContext().owner().setTimer(t, event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        }, null, 1);
+        queue.setPaused(true);
+        for (int i = 0; i < 3; i++) {
+            context.assertTrue(queue.add(10, event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == 3) {
+                    context.assertEquals(3, used.size());
+                    async.complete();
+                }
+            }, false));
+        }
+        context.assertTrue(queue.isPaused());
+        queue.getShards().stream().forEach(shard -> {
+            context.assertEquals(1L, shard.getDepth());
+        });
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeMetricsAndListeners(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            u.handle(t % 2 == 0 ? DefaultAsyncResult.succeed() : DefaultAsyncResult.fail(new IllegalArgumentException()));
+        }, t -> t, 1);
+        queue.add(new AsyncWorkerListener() {
+            @Override
+            public void poolEmpty(final AsyncWorker instance) {
+                context.assertEquals(queue, instance);
+                if (counter.get() == 6) {
+                    final AsyncWorkerMetrics metrics = queue.getMetrics();
+                    context.assertEquals(6L, metrics.getEnqueued());
+                    context.assertEquals(6L, metrics.getStarted());
+                    context.assertEquals(3L, metrics.getCompleted());
+                    context.assertEquals(3L, metrics.getFailed());
+                    context.assertEquals(0L, metrics.getDepth());
+                    context.assertEquals(3, metrics.getConcurrency());
+                    context.assertEquals(6L, metrics.getWaitTime().getCount());
+                    context.assertEquals(6L, metrics.getServiceTime().getCount());
+                    if (queue.remove(this)) {
+                        async.complete();
+                    }
+                }
+            }
+
+            @Override
+            public void poolFull(final AsyncWorker instance) {
+                context.fail();
+            }
+        });
+        for (int i = 0; i < 6; i++) {
+            context.assertTrue(queue.add(i, event -> {
+                counter.incrementAndGet();
+            }, false));
+        }
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeSinglePoolEmpty(final TestContext context) {
+        final Async async = context.async();
+        final AtomicInteger events = new AtomicInteger();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            Vertx.currentContext().owner().setTimer(t, event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        }, t -> t, 1);
+        queue.add(new AsyncWorkerListener() {
+            @Override
+            public void poolEmpty(final AsyncWorker instance) {
+                context.assertEquals(6, counter.get());
+                if (events.incrementAndGet() == 1) {
+                    // No other shard reports it again
+                    rule.vertx().setTimer(50, event -> {
+                        context.assertEquals(1, events.get());
+                        async.complete();
+                    });
+                }
+            }
+
+            @Override
+            public void poolFull(final AsyncWorker instance) {
+            }
+        });
+        for (int i = 0; i < 6; i++) {
+            context.assertTrue(queue.add(1 + i % 3, event -> {
+                context.assertTrue(event.succeeded());
+                counter.incrementAndGet();
+            }, false));
+        }
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT / 10, silent = true)
+    public void executeStealing(final TestContext context) {
+        final Async async = context.async();
+        final List<Integer> order = new CopyOnWriteArrayList<>();
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            Vertx.currentContext().owner().setTimer(t, event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        }, t -> null, 1);
+        context.assertFalse(queue.isStealing());
+        queue.setStealing(true);
+        context.assertTrue(queue.isStealing());
+        queue.setPaused(true);
+        // The slow task goes first to the first shard, which holds 2 more
+        for (int i = 0; i < 9; i++) {
+            final int delay = i == 0 ? 200 : 1;
+            context.assertTrue(queue.add(delay, event -> {
+                context.assertTrue(event.succeeded());
+                order.add(delay);
+                if (order.size() == 9) {
+                    context.assertEquals(200, order.get(8));
+                    context.assertEquals(9L, queue.getMetrics().getStarted());
+                    async.complete();
+                }
+            }, false));
+        }
+        context.assertEquals(3L, queue.getShards().get(0).getDepth());
+        queue.setPaused(false);
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeStealingKeepsPinnedTasks(final TestContext context) {
+        final Async async = context.async();
+        final Set<Context> used = ConcurrentHashMap.newKeySet();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            used.add(Vertx.currentContext());
+            Vertx.currentContext().owner().setTimer(t, event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        }, t -> "pinned", 1);
+        queue.setStealing(true);
+        for (int i = 0; i < 6; i++) {
+            context.assertTrue(queue.add(1, event -> {
+                if (counter.incrementAndGet() == 6) {
+                    context.assertEquals(1, used.size());
+                    async.complete();
+                }
+            }, false));
+        }
+    }
+
+    @Test(timeout = AsyncShardedQueueImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncShardedQueueImplTest.REPEAT_LIMIT, silent = true)
+    public void executeStealingWakesOnce(final TestContext context) {
+        final Async async = context.async();
+        final Map<AsyncWorker, AtomicInteger> wakes = new ConcurrentHashMap<>();
+        final AtomicInteger counter = new AtomicInteger();
+        final AsyncShardedQueueImpl<Integer> queue = new AsyncShardedQueueImpl<>(contexts, (t, u) -> {
+            Vertx.currentContext().owner().setTimer(t, event -> {
+                u.handle(DefaultAsyncResult.succeed());
+            });
+        }, t -> "pinned", 1);
+        queue.setStealing(true);
+        queue.getShards().stream().forEach(shard -> {
+            shard.add(new AsyncWorkerListener() {
+                @Override
+                public void poolEmpty(final AsyncWorker instance) {
+                    wakes.computeIfAbsent(instance, k -> new AtomicInteger()).incrementAndGet();
+                }
+
+                @Override
+                public void poolFull(final AsyncWorker instance) {
+                }
+            });
+        });
+        for (int i = 0; i < 50; i++) {
+            context.assertTrue(queue.add(1, event -> {
+                if (counter.incrementAndGet() == 50) {
+                    // Pinned tasks cannot be stolen, one wake up is enough
+                    context.assertTrue(queue.getShards().stream().filter(shard -> {
+                        return shard.getMetrics().getStarted() == 0 && wakes.containsKey(shard);
+                    }).mapToInt(shard -> wakes.get(shard).get()).sum() <= 1);
+                    async.complete();
+                }
+            }, false));
+        }
+    }
+
+}
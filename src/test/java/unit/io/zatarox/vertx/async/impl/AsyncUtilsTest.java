@@ -17,7 +17,9 @@ package io.zatarox.vertx.async.impl;
 
 import io.zatarox.vertx.async.utils.DefaultAsyncResult;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Repeat;
@@ -26,6 +28,8 @@ import io.vertx.ext.unit.junit.RunTestOnContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.zatarox.vertx.async.api.AsyncUtils;
 import io.zatarox.vertx.async.api.BiHandler;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -185,4 +189,82 @@ public final class AsyncUtilsTest {
             });
         });
     }
+
+    @Test(timeout = AsyncUtilsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncUtilsTest.REPEAT_LIMIT, silent = true)
+    public void fromCompletedStageWithoutHop(final TestContext context) {
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        instance.fromCompletionStage(CompletableFuture.completedFuture(42), result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(42, result.result());
+            handlerCallCount.incrementAndGet();
+        });
+        context.assertEquals(1, handlerCallCount.get());
+    }
+
+    @Test(timeout = AsyncUtilsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncUtilsTest.REPEAT_LIMIT, silent = true)
+    public void fromStageCompletedOnForeignThread(final TestContext context) {
+        final Context expected = rule.vertx().getOrCreateContext();
+        final Async async = context.async();
+        instance.fromCompletionStage(CompletableFuture.supplyAsync(() -> {
+            throw new IllegalStateException();
+        }), result -> {
+            context.assertEquals(expected, Vertx.currentContext());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalStateException);
+            async.complete();
+        });
+    }
+
+    @Test(timeout = AsyncUtilsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncUtilsTest.REPEAT_LIMIT, silent = true)
+    public void fromCompletionStagesInOrder(final TestContext context) {
+        final CompletableFuture<Integer> first = new CompletableFuture<>();
+        final Async async = context.async();
+        instance.fromCompletionStages(Arrays.asList(first, CompletableFuture.supplyAsync(() -> 2), CompletableFuture.completedFuture(3)), result -> {
+            context.assertTrue(result.succeeded());
+            context.assertEquals(Arrays.asList(1, 2, 3), result.result());
+            async.complete();
+        });
+        first.complete(1);
+    }
+
+    @Test(timeout = AsyncUtilsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncUtilsTest.REPEAT_LIMIT, silent = true)
+    public void fromCompletionStagesFailsOnce(final TestContext context) {
+        final AtomicInteger handlerCallCount = new AtomicInteger(0);
+        final CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalArgumentException());
+        final Async async = context.async();
+        instance.fromCompletionStages(Arrays.asList(failed, failed, CompletableFuture.completedFuture(3)), result -> {
+            context.assertEquals(1, handlerCallCount.incrementAndGet());
+            context.assertTrue(result.failed());
+            context.assertTrue(result.cause() instanceof IllegalArgumentException);
+            rule.vertx().setTimer(10, event -> async.complete());
+        });
+    }
+
+    @Test(timeout = AsyncUtilsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncUtilsTest.REPEAT_LIMIT, silent = true)
+    public void toCompletionStageWithoutHop(final TestContext context) {
+        final CompletableFuture<Integer> stage = instance.<Integer>toCompletionStage(handler -> {
+            handler.handle(DefaultAsyncResult.succeed(42));
+        }).toCompletableFuture();
+        context.assertTrue(stage.isDone());
+        context.assertEquals(42, stage.getNow(null));
+    }
+
+    @Test(timeout = AsyncUtilsTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncUtilsTest.REPEAT_LIMIT, silent = true)
+    public void toCompletionStageFails(final TestContext context) {
+        final Async async = context.async();
+        instance.<Integer>toCompletionStage(handler -> {
+            rule.vertx().runOnContext(event -> handler.handle(DefaultAsyncResult.fail(new IllegalArgumentException())));
+        }).whenComplete((result, cause) -> {
+            context.assertNull(result);
+            context.assertTrue(cause instanceof IllegalArgumentException);
+            async.complete();
+        });
+    }
 }
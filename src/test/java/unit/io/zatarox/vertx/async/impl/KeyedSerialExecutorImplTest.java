@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.utils.DefaultAsyncResult;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public final class KeyedSerialExecutorImplTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    private KeyedSerialExecutorImpl<Integer> executor;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+
+    @Before
+    public void setUp(final TestContext context) {
+        executor = new KeyedSerialExecutorImpl<>(rule.vertx().getOrCreateContext());
+        context.assertTrue(executor.isIdle());
+        context.assertEquals(0, executor.getActiveKeys());
+    }
+
+    private Handler<Handler<AsyncResult<Integer>>> delayed(final int value, final long delay, final Map<Integer, AtomicInteger> running, final int key) {
+        return handler -> {
+            final AtomicInteger inflight = running.computeIfAbsent(key, k -> new AtomicInteger());
+            if (inflight.incrementAndGet() != 1) {
+                handler.handle(DefaultAsyncResult.fail(new IllegalStateException("Concurrent tasks for " + key)));
+            } else {
+                rule.vertx().setTimer(delay, event -> {
+                    inflight.decrementAndGet();
+                    handler.handle(DefaultAsyncResult.succeed(value));
+                });
+            }
+        };
+    }
+
+    @Test(timeout = KeyedSerialExecutorImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = KeyedSerialExecutorImplTest.REPEAT_LIMIT, silent = true)
+    public void executeSerialPerKey(final TestContext context) {
+        final Async async = context.async();
+        final Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+        final Map<Integer, List<Integer>> order = new ConcurrentHashMap<>();
+        final AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 12; i++) {
+            final int key = i % 3;
+            final int value = i;
+            executor.execute(key, delayed(value, 12 - i, running, key), event -> {
+                context.assertTrue(event.succeeded());
+                context.assertEquals(value, event.result());
+                order.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(value);
+                if (counter.incrementAndGet() == 12) {
+                    order.values().stream().forEach(values -> {
+                        for (int j = 1; j < values.size(); j++) {
+                            context.assertTrue(values.get(j - 1) < values.get(j));
+                        }
+                    });
+                    rule.vertx().runOnContext(e -> {
+                        context.assertTrue(executor.isIdle());
+                        async.complete();
+                    });
+                }
+            });
+        }
+        context.assertEquals(3, executor.getActiveKeys());
+    }
+
+    @Test(timeout = KeyedSerialExecutorImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = KeyedSerialExecutorImplTest.REPEAT_LIMIT, silent = true)
+    public void executeKeysInParallel(final TestContext context) {
+        final Async async = context.async();
+        final Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+        final AtomicInteger counter = new AtomicInteger();
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            executor.execute(i, delayed(i, 100, running, i), event -> {
+                context.assertTrue(event.succeeded());
+                if (counter.incrementAndGet() == 10) {
+                    context.assertTrue(System.currentTimeMillis() - start < 500);
+                    async.complete();
+                }
+            });
+        }
+        context.assertEquals(10, executor.getActiveKeys());
+    }
+
+    @Test(timeout = KeyedSerialExecutorImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = KeyedSerialExecutorImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAfterFailure(final TestContext context) {
+        final Async async = context.async();
+        executor.<Integer>execute(1, handler -> {
+            handler.handle(DefaultAsyncResult.fail(new IllegalArgumentException()));
+        }, event -> {
+            context.assertTrue(event.failed());
+            context.assertTrue(event.cause() instanceof IllegalArgumentException);
+        });
+        executor.<Integer>execute(1, handler -> {
+            handler.handle(DefaultAsyncResult.succeed(2));
+        }, event -> {
+            context.assertTrue(event.succeeded());
+            context.assertEquals(2, event.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = KeyedSerialExecutorImplTest.TIMEOUT_LIMIT)
+    @Repeat(value = KeyedSerialExecutorImplTest.REPEAT_LIMIT, silent = true)
+    public void executeAfterThrow(final TestContext context) {
+        final Async async = context.async();
+        executor.<Integer>execute(1, handler -> {
+            throw new IllegalArgumentException();
+        }, event -> {
+            context.assertTrue(event.failed());
+            context.assertTrue(event.cause() instanceof IllegalArgumentException);
+        });
+        executor.<Integer>execute(1, handler -> {
+            handler.handle(DefaultAsyncResult.succeed(1));
+        }, event -> {
+            throw new IllegalStateException();
+        });
+        executor.<Integer>execute(1, handler -> {
+            handler.handle(DefaultAsyncResult.succeed(2));
+        }, event -> {
+            context.assertTrue(event.succeeded());
+            context.assertEquals(2, event.result());
+            async.complete();
+        });
+    }
+
+    @Test(timeout = KeyedSerialExecutorImplTest.TIMEOUT_LIMIT)
+    public void executeSynchronousTasks(final TestContext context) {
+        final Async async = context.async();
+        final int count = 100000;
+        final AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            executor.<Integer>execute(0, handler -> {
+                handler.handle(DefaultAsyncResult.succeed(counter.get()));
+            }, event -> {
+                context.assertEquals(counter.getAndIncrement(), event.result());
+                if (counter.get() == count) {
+                    async.complete();
+                }
+            });
+        }
+    }
+
+}
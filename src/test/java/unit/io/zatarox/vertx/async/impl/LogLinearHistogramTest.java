@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.zatarox.vertx.async.api.Histogram;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class LogLinearHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        final Histogram histogram = new LogLinearHistogram().snapshot();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void testBuckets() {
+        long previous = -1;
+        for (long value = 0; value < 100000; value++) {
+            final int index = LogLinearHistogram.index(value);
+            assertTrue(value <= LogLinearHistogram.highestValue(index));
+            assertTrue(index == 0 || value > LogLinearHistogram.highestValue(index - 1));
+            assertTrue(index >= previous);
+            previous = index;
+        }
+        assertEquals(Long.MAX_VALUE, LogLinearHistogram.highestValue(LogLinearHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LogLinearHistogram recorder = new LogLinearHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            recorder.record(value * 1000);
+        }
+        recorder.record(-1);
+        final Histogram histogram = recorder.snapshot();
+        assertEquals(1001, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(1000000, histogram.getPercentile(100));
+        assertEquals(500000, histogram.getPercentile(50), 500000 / 8);
+        assertEquals(990000, histogram.getPercentile(99), 990000 / 8);
+        assertEquals(0, histogram.getPercentile(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LogLinearHistogram().snapshot().getPercentile(101);
+    }
+
+}
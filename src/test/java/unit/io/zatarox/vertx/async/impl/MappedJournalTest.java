@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.impl;
+
+import io.vertx.core.eventbus.impl.codecs.StringMessageCodec;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class MappedJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.getRoot().toPath().resolve("journal");
+    }
+
+    private MappedJournal<String> open(final int capacity) throws IOException {
+        return new MappedJournal<>(path, capacity, new StringMessageCodec());
+    }
+
+    private static long append(final MappedJournal<String> journal, final String task) throws IOException {
+        long id = journal.append(task);
+        if (id < 0) {
+            journal.compact();
+            id = journal.append(task);
+        }
+        return id;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() throws IOException {
+        open(8);
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        try (final MappedJournal<String> journal = open(1024)) {
+            assertEquals(0, journal.size());
+            assertEquals(0, journal.append("a"));
+            assertEquals(1, journal.append("b"));
+            assertEquals(2, journal.append("c"));
+            journal.ack(1);
+            journal.ack(1);
+            assertEquals(2, journal.size());
+        }
+        try (final MappedJournal<String> journal = open(1024)) {
+            final Map<Long, String> pending = journal.getPending();
+            assertEquals(Arrays.asList(0L, 2L), new ArrayList<>(pending.keySet()));
+            assertEquals(Arrays.asList("a", "c"), new ArrayList<>(pending.values()));
+            assertEquals(3, journal.append("d"));
+        }
+    }
+
+    @Test
+    public void testReuseWhenEmpty() throws IOException {
+        try (final MappedJournal<String> journal = open(1024)) {
+            journal.append("aaaaaaaaaaaaaaaaaaaa");
+            journal.append("bbbbbbbbbbbbbbbbbbbb");
+            journal.ack(0);
+            journal.ack(1);
+            journal.append("c");
+        }
+        try (final MappedJournal<String> journal = open(1024)) {
+            assertEquals(Arrays.asList("c"), new ArrayList<>(journal.getPending().values()));
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        try (final MappedJournal<String> journal = open(128)) {
+            journal.append("first");
+            for (int i = 0; i < 1000; i++) {
+                journal.ack(append(journal, "task" + i));
+                if (journal.isFull()) {
+                    journal.compact();
+                }
+            }
+            assertEquals(128, journal.getCapacity());
+            assertEquals(1, journal.size());
+        }
+        try (final MappedJournal<String> journal = open(128)) {
+            assertEquals(Arrays.asList("first"), new ArrayList<>(journal.getPending().values()));
+            journal.compact();
+            assertEquals(1, journal.size());
+        }
+    }
+
+    @Test
+    public void testRefusedWhenFull() throws IOException {
+        try (final MappedJournal<String> journal = open(64)) {
+            while (journal.append("task") >= 0) {
+                assertFalse(journal.isFull());
+            }
+            assertTrue(journal.isFull());
+            journal.compact();
+            assertFalse(journal.isFull());
+            assertTrue(journal.getCapacity() > 64);
+            assertTrue(journal.append("task") >= 0);
+        }
+    }
+
+    @Test
+    public void testGrowth() throws IOException {
+        try (final MappedJournal<String> journal = open(64)) {
+            for (int i = 0; i < 100; i++) {
+                append(journal, "task" + i);
+            }
+            assertTrue(journal.getCapacity() > 64);
+            journal.force();
+        }
+        try (final MappedJournal<String> journal = open(64)) {
+            final Map<Long, String> pending = journal.getPending();
+            assertEquals(100, pending.size());
+            assertEquals("task99", pending.get(99L));
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2004-2016 Guillaume Chauvet.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zatarox.vertx.async.utils;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Repeat;
+import io.vertx.ext.unit.junit.RepeatRule;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.zatarox.vertx.async.impl.AsyncQueueImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+@RunWith(VertxUnitRunner.class)
+public final class AsyncTransformersTest {
+
+    /**
+     * Limits
+     */
+    private static final int TIMEOUT_LIMIT = 1000;
+    private static final int REPEAT_LIMIT = 100;
+
+    @Rule
+    public RepeatRule repeater = new RepeatRule();
+    @Rule
+    public RunTestOnContext rule = new RunTestOnContext();
+
+    @Test(timeout = AsyncTransformersTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncTransformersTest.REPEAT_LIMIT, silent = true)
+    public void mapKeepsOrderAndLimit(final TestContext context) {
+        final AtomicInteger inFlight = new AtomicInteger(0);
+        final AtomicInteger maxInFlight = new AtomicInteger(0);
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i * 2);
+        }
+        final Async async = context.async();
+
+        Observable.range(0, 50).compose(AsyncTransformers.<Integer, Integer>map((item, handler) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            rule.vertx().setTimer(1 + item % 3, event -> {
+                inFlight.decrementAndGet();
+                handler.handle(DefaultAsyncResult.succeed(item * 2));
+            });
+        }, 4)).toList().subscribe(result -> {
+            context.assertEquals(expected, result);
+            context.assertTrue(maxInFlight.get() <= 4);
+            async.complete();
+        }, context::fail);
+    }
+
+    @Test(timeout = AsyncTransformersTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncTransformersTest.REPEAT_LIMIT, silent = true)
+    public void eachHonoursDownstreamDemand(final TestContext context) {
+        final AtomicInteger pulled = new AtomicInteger(0);
+        final TestSubscriber<Integer> subscriber = TestSubscriber.create(2);
+
+        Observable.range(0, 100).doOnNext(item -> pulled.incrementAndGet()).compose(AsyncTransformers.<Integer>each((item, handler) -> {
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 4)).subscribe(subscriber);
+        subscriber.assertValues(0, 1);
+        context.assertTrue(pulled.get() <= 2 + 4);
+        subscriber.requestMore(Long.MAX_VALUE);
+        subscriber.assertValueCount(100);
+        subscriber.assertCompleted();
+    }
+
+    @Test(timeout = AsyncTransformersTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncTransformersTest.REPEAT_LIMIT, silent = true)
+    public void eachFails(final TestContext context) {
+        final TestSubscriber<Integer> subscriber = TestSubscriber.create();
+
+        Observable.range(0, 10).compose(AsyncTransformers.<Integer>each((item, handler) -> {
+            if (item == 3) {
+                throw new IllegalArgumentException();
+            }
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 1)).subscribe(subscriber);
+        subscriber.assertValues(0, 1, 2);
+        subscriber.assertError(IllegalArgumentException.class);
+    }
+
+    @Test(timeout = AsyncTransformersTest.TIMEOUT_LIMIT)
+    @Repeat(value = AsyncTransformersTest.REPEAT_LIMIT, silent = true)
+    public void workerProcessesItems(final TestContext context) {
+        final AtomicInteger processed = new AtomicInteger(0);
+        final AsyncQueueImpl<Integer> queue = new AsyncQueueImpl<>(rule.vertx().getOrCreateContext(), (item, handler) -> {
+            processed.incrementAndGet();
+            handler.handle(DefaultAsyncResult.succeed());
+        }, 2);
+        final Async async = context.async();
+
+        Observable.range(0, 20).compose(AsyncTransformers.worker(queue, 4)).count().subscribe(count -> {
+            context.assertEquals(20, count);
+            context.assertEquals(20, processed.get());
+            async.complete();
+        }, context::fail);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mapRejectsNonPositiveLimit() {
+        AsyncTransformers.<Integer, Integer>map((item, handler) -> {
+        }, 0);
+    }
+}